@@ -36,8 +36,7 @@ public class TransitionCopy {
   
   /** Returns the original Transition of the automat or null if the automat has no such transition. */
   protected Transition getOriginalTransition() {
-    return Transition.isInArrayList(getStartStateIndex(), getEndStateIndex(),
-        Editor.getDrawablePanel().getAutomat().getTransitions());
+    return Editor.getDrawablePanel().getAutomat().getTransition(getStartStateIndex(), getEndStateIndex());
   }
   
   /** Returns a Transition-instance of this object. */
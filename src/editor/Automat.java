@@ -11,6 +11,9 @@ import java.awt.Point;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 
 import controlFlow.AddedState;
 import controlFlow.AddedTransition;
@@ -21,7 +24,24 @@ import controlFlow.UserAction;
 
 public class Automat {
   private ArrayList<State> states;
+  /** Index of the states by their stateIndex for O(1) lookups, and the set of taken stateIndices
+   * to find the lowest free one. Only ever changed by registerState / unregisterState. */
+  private HashMap<Integer, State> statesByStateIndex;
+  private BitSet usedStateIndices;
+  /** All transitions in the order they were added, a removal costs O(1). */
+  private LinkedHashSet<Transition> transitionSet;
+  /** The transitionSet as a list for getTransitions(). A removal only marks it stale, it's
+   * rebuilt once on the next access, so deleting many transitions stays linear. */
   private ArrayList<Transition> transitions;
+  private boolean transitionsStale;
+  /** Adjacency index of the transitions, keyed by stateIndex. Holds all transitions leaving
+   * (outgoing) or entering (incoming) a state, so lookups by state cost O(degree) instead of
+   * a scan over all transitions. Only ever changed by registerTransition / unregisterTransition. */
+  private HashMap<Integer, ArrayList<Transition>> outgoingTransitions;
+  private HashMap<Integer, ArrayList<Transition>> incomingTransitions;
+  /** The transitions by their (start-stateIndex, end-stateIndex) pair. An automat has at most one
+   * transition per ordered pair of states, further symbols are added to that transition. */
+  private TransitionMap transitionsByStates;
   // The unfinished Transitions states that is currently being constructed by the user
   // when he operates with the Transition tool.
   private State constructingTransitionStartState;
@@ -37,7 +57,13 @@ public class Automat {
 
   public Automat() {
     this.states = new ArrayList<State>();
+    this.statesByStateIndex = new HashMap<Integer, State>();
+    this.usedStateIndices = new BitSet();
+    this.transitionSet = new LinkedHashSet<Transition>();
     this.transitions = new ArrayList<Transition>();
+    this.outgoingTransitions = new HashMap<Integer, ArrayList<Transition>>();
+    this.incomingTransitions = new HashMap<Integer, ArrayList<Transition>>();
+    this.transitionsByStates = new TransitionMap();
   }
 
   /** Iterates over all added states, transitions and their symbols and draws them. */
@@ -49,8 +75,9 @@ public class Automat {
     graphics2D.setColor(Color.BLACK);
     
     // transitions
-    for (int i = 0; i < transitions.size(); i++) {
-      transitions.get(i).paint(graphics2D);
+    ArrayList<Transition> allTransitions = getTransitions();
+    for (int i = 0; i < allTransitions.size(); i++) {
+      allTransitions.get(i).paint(graphics2D);
     }
     
     // animated Ball
@@ -129,9 +156,9 @@ public class Automat {
   
   /** Updates the painting coordinates of all transitions coming from or going to the state. */
   public void updateStateTransitions(State state) {
-    ArrayList<Transition> movedStateTransitions = state.getTransitions(transitions);
+    ArrayList<Transition> movedStateTransitions = Transition.getTransitionsByState(state, this);
     for (int i = 0; i < movedStateTransitions.size(); i++) {
-      movedStateTransitions.get(i).computePaintingCoordinates(transitions);
+      movedStateTransitions.get(i).computePaintingCoordinates(this);
     }
     
     /* Need to update all ArcTransitions of states that can be reached by only one
@@ -141,7 +168,7 @@ public class Automat {
      * AFTER all LineTransitions have been updated. This is to avoid visual artifacts. */
     ArrayList<Transition> arcTransitions = getMovedStateNeighboursArcTransitions(state);
     for (int i = 0; i < arcTransitions.size(); i++) {
-      arcTransitions.get(i).computePaintingCoordinates(transitions);
+      arcTransitions.get(i).computePaintingCoordinates(this);
     }
   }
   
@@ -152,16 +179,14 @@ public class Automat {
     
     // Get all transitions that have the movedState as a Start-State. Gets an ArcTransition
     // of the movedState itself too if it has one
-    ArrayList<Transition> movedStateTransitions = Transition.getTransitionsByStartState(movedState,
-        transitions);
+    ArrayList<Transition> movedStateTransitions = Transition.getTransitionsByStartState(movedState, this);
     
     // Iterate over end-states of the retrieved list and check if it has an ArcTransition
     Transition arcTransition;
     for (int i = 0; i < movedStateTransitions.size(); i++) {
       // Add found ArcTransitions to the list. If the passed EndState has no arcTransition, we 
       // get null and add this to the arrayList which has no effect.
-      arcTransition = Transition.isInArrayList(movedStateTransitions.get(i).getTransitionEnd().stateIndex,
-          movedStateTransitions.get(i).getTransitionEnd().stateIndex, transitions);
+      arcTransition = movedStateTransitions.get(i).getTransitionEnd().gotArcTransition(this);
       if (arcTransition != null)
         arcTransitions.add(arcTransition);
     }
@@ -321,14 +346,15 @@ public class Automat {
     
     // Does the automat already have such a transition with such start-state and
     // end-state indices?
-    Transition transition = newTransition.isInArrayList(transitions);
+    Transition transition = getTransition(newTransition.getTransitionStart().stateIndex,
+        newTransition.getTransitionEnd().stateIndex);
     if (transition == null) {
       // Instantiate a new Transition with start- and end-state and no symbols yet
       transition = new Transition(newTransition.getTransitionStart(),
           newTransition.getTransitionEnd());
       
       // Add the transition to the automats transitions.
-      transitions.add(transition);
+      registerTransition(transition);
       
       // Create a redo/undo entry if needed
       if (addActionToControlFlow) {
@@ -344,21 +370,22 @@ public class Automat {
       
     // Update the transitions painting information. Called every time, even if only a symbol has
     // been added.
-    transition.computePaintingCoordinates(transitions);
+    transition.computePaintingCoordinates(this);
   }
   
   /** Adds a Transition to the automat without updating the painting information. */
   public void addTransitionNoPaintingUpdate(Transition newTransition) {
     // Does the automat already have such a transition with such start-state and
     // end-state indices?
-    Transition transition = newTransition.isInArrayList(transitions);
+    Transition transition = getTransition(newTransition.getTransitionStart().stateIndex,
+        newTransition.getTransitionEnd().stateIndex);
     if (transition == null) {
       // Instantiate a new Transition with start- and end-state and no symbols yet
       transition = new Transition(newTransition.getTransitionStart(),
           newTransition.getTransitionEnd());
       
       // Add the transition to the automats transitions.
-      transitions.add(transition);
+      registerTransition(transition);
     }
     
     // Add all symbols
@@ -391,21 +418,22 @@ public class Automat {
     hitShape = getClickedState(evt);
     
     // Traverse the Transitions
-    for (int i = 0; i < transitions.size(); i++) {
-      if (transitions.get(i).mouseClickHit(evt.getX(), evt.getY())) {
+    ArrayList<Transition> allTransitions = getTransitions();
+    for (int i = 0; i < allTransitions.size(); i++) {
+      if (allTransitions.get(i).mouseClickHit(evt.getX(), evt.getY())) {
         // Save the new Transition that reported a mouse-collision
-        hitShape = transitions.get(i);
+        hitShape = allTransitions.get(i);
       }
     }
     
     // Traverse the Transitions symbols
     ArrayList<Symbol> symbols;
-    for (int i = 0; i < transitions.size(); i++) {
-      symbols = transitions.get(i).getSymbols();
+    for (int i = 0; i < allTransitions.size(); i++) {
+      symbols = allTransitions.get(i).getSymbols();
       
       // Don't allow selecting symbols on a LineTransition which is not painted
-      if (transitions.get(i).getTransitionPaint() instanceof TransitionPaintLine) {
-        if ( !((TransitionPaintLine) transitions.get(i).getTransitionPaint()).isPainted() ) {
+      if (allTransitions.get(i).getTransitionPaint() instanceof TransitionPaintLine) {
+        if ( !((TransitionPaintLine) allTransitions.get(i).getTransitionPaint()).isPainted() ) {
           continue;
         }
       }
@@ -441,7 +469,7 @@ public class Automat {
    * this method is just called from a redo / undo order. */
   public void addState(State state, boolean addActionToControlFlow) {
     if (addingStateAllowed(state)) {
-      states.add(state);
+      registerState(state);
       
       // Add this action to the controlFlow if the flag is set
       if (addActionToControlFlow)
@@ -485,19 +513,32 @@ public class Automat {
     return false;
   }
 
-  /** Starts at 1, 0 is reserved for the start-state */
-  public int findNewStateIndex() {
-    int i = 1;
-    while (getStateByStateIndex(i) != null) {
-      i++;
+  /** Adds the state to the automats states-list and to the stateIndex lookups. */
+  private void registerState(State state) {
+    states.add(state);
+    statesByStateIndex.put(state.stateIndex, state);
+    usedStateIndices.set(state.stateIndex);
+  }
+  
+  /** Removes the state from the automats states-list and frees its stateIndex. */
+  private void unregisterState(State state) {
+    states.remove(state);
+    
+    // Only free the index if it really belonged to the removed state
+    if (statesByStateIndex.get(state.stateIndex) == state) {
+      statesByStateIndex.remove(state.stateIndex);
+      usedStateIndices.clear(state.stateIndex);
     }
+  }
 
-    return i;
+  /** Returns the lowest free stateIndex. Starts at 1, 0 is reserved for the start-state */
+  public int findNewStateIndex() {
+    return usedStateIndices.nextClearBit(1);
   }
 
-  /** Returns the found state, or null otherwise. */
+  /** Returns the found state, or null otherwise. O(1) by the stateIndex lookup. */
   public State getStateByStateIndex(int stateIndex) {
-    return State.getStateByStateIndex(stateIndex, states);
+    return statesByStateIndex.get(stateIndex);
   }
   
   /** Deletes a Shape (states, transitions...) from the automat. */
@@ -537,7 +578,7 @@ public class Automat {
     // Is the transition an ArcTransition?
     if (transition.isArcTransition()) {
       // Delete the transition. No further painting updating needed
-      transitions.remove(transition);
+      unregisterTransition(transition);
       
       // Add this action to the controlFlow if the flag is set
       if (addActionToControlFlow)
@@ -548,12 +589,12 @@ public class Automat {
       
     // Transition is a LineTransition. Save neighbor-Transitions that need to be updated
     // after the deletion.
-    Transition reverseTransition = transition.gotReverseTransition(transitions);
-    Transition startStateArcTransition = transition.getTransitionStart().gotArcTransition(transitions);
-    Transition endStateArcTransition = transition.getTransitionEnd().gotArcTransition(transitions);
+    Transition reverseTransition = transition.gotReverseTransition(this);
+    Transition startStateArcTransition = transition.getTransitionStart().gotArcTransition(this);
+    Transition endStateArcTransition = transition.getTransitionEnd().gotArcTransition(this);
     
     // Delete the transition
-    transitions.remove(transition);
+    unregisterTransition(transition);
     
     // Add this action to the controlFlow if the flag is set
     if (addActionToControlFlow)
@@ -561,16 +602,94 @@ public class Automat {
     
     // After the deleting the transition, update the neighbors painting stats
     if (reverseTransition != null)
-      reverseTransition.computePaintingCoordinates(transitions);
+      reverseTransition.computePaintingCoordinates(this);
     if (startStateArcTransition != null)
-      startStateArcTransition.computePaintingCoordinates(transitions);
+      startStateArcTransition.computePaintingCoordinates(this);
     if (endStateArcTransition != null)
-      endStateArcTransition.computePaintingCoordinates(transitions);
+      endStateArcTransition.computePaintingCoordinates(this);
   }
   
   /** Removes all transitions of the automat. */
   public void deleteAllTransitions() {
+    transitionSet = new LinkedHashSet<Transition>();
     transitions = new ArrayList<Transition>();
+    transitionsStale = false;
+    outgoingTransitions.clear();
+    incomingTransitions.clear();
+    transitionsByStates.clear();
+  }
+  
+  /** Adds the transition to the automats transitions-list and to the adjacency index of its
+   * start- and end-state. Doesn't check for duplicates, callers do this themselves. */
+  private void registerTransition(Transition transition) {
+    // A stale list gets the transition when it's rebuilt
+    if (transitionSet.add(transition) && !transitionsStale)
+      transitions.add(transition);
+    transitionsByStates.put(transition);
+    
+    adjacencyList(outgoingTransitions, transition.getTransitionStart().stateIndex).add(transition);
+    adjacencyList(incomingTransitions, transition.getTransitionEnd().stateIndex).add(transition);
+  }
+  
+  /** Removes the transition from the automats transitions-list and from the adjacency index. */
+  private void unregisterTransition(Transition transition) {
+    if (transitionSet.remove(transition))
+      transitionsStale = true;
+    
+    // Only unmap the pair if it really maps to the removed transition
+    int startStateIndex = transition.getTransitionStart().stateIndex;
+    int endStateIndex = transition.getTransitionEnd().stateIndex;
+    if (transitionsByStates.get(startStateIndex, endStateIndex) == transition)
+      transitionsByStates.remove(startStateIndex, endStateIndex);
+    
+    ArrayList<Transition> outgoing = outgoingTransitions.get(transition.getTransitionStart().stateIndex);
+    if (outgoing != null)
+      removeLastOccurrence(outgoing, transition);
+    
+    ArrayList<Transition> incoming = incomingTransitions.get(transition.getTransitionEnd().stateIndex);
+    if (incoming != null)
+      removeLastOccurrence(incoming, transition);
+  }
+  
+  /** Removes the transition from the adjacency-list, searching from its end. O(1) for the last
+   * transition, State.deleteTransitions() deletes the transitions of a state from the last on. */
+  private static void removeLastOccurrence(ArrayList<Transition> list, Transition transition) {
+    for (int i = list.size() - 1; i >= 0; i--) {
+      if (list.get(i) == transition) {
+        list.remove(i);
+        return;
+      }
+    }
+  }
+  
+  /** Returns the adjacency-list of the passed stateIndex, creates an empty one if there's none yet. */
+  private static ArrayList<Transition> adjacencyList(HashMap<Integer, ArrayList<Transition>> index,
+      int stateIndex) {
+    ArrayList<Transition> list = index.get(stateIndex);
+    if (list == null) {
+      list = new ArrayList<Transition>();
+      index.put(stateIndex, list);
+    }
+    
+    return list;
+  }
+  
+  /** Returns the automats transition from the start- to the end-state, or null if there is none.
+   * O(1) by the (start, end)-pair lookup, doesn't allocate. */
+  public Transition getTransition(int startStateIndex, int endStateIndex) {
+    return transitionsByStates.get(startStateIndex, endStateIndex);
+  }
+  
+  /** Returns all transitions that have the passed state as a start-state. The returned list is
+   * the automats internal index and must not be modified, it's null if the state has none. */
+  ArrayList<Transition> getOutgoingTransitions(State state) {
+    return outgoingTransitions.get(state.stateIndex);
+  }
+  
+  /** Returns all transitions that have the passed state as an end-state. The returned list is
+   * the automats internal index and must not be modified, it's null if the state has none. */
+  ArrayList<Transition> getIncomingTransitions(State state) {
+    return incomingTransitions.get(state.stateIndex);
   }
   
   /** Deletes a state from the automats list and performs the necessary painting updating. 
@@ -581,7 +700,9 @@ public class Automat {
     ArrayList<Transition> deletedTransitions = state.deleteTransitions(this);
     
     // Remove the state from the automat
-    states.remove(state);
+    unregisterState(state);
+    outgoingTransitions.remove(state.stateIndex);
+    incomingTransitions.remove(state.stateIndex);
     
     // Add this action to the controlFlow if the flag is set
     if (addActionToControlFlow)
@@ -642,16 +763,24 @@ public class Automat {
    * @return a deep copy of the automat with all new references on the automat itself,
    * its states, transitions etc. */
   public Automat copy() {
+    // O(states + transitions): the copied states are remapped through an array indexed by stateIndex.
+    // The transitions get their painting objects on the first painting access only.
     Automat automat = new Automat();
     
     // States
+    State[] stateCopies = new State[usedStateIndices.length()];
     for (int i = 0; i < states.size(); i++) {
-      automat.states.add(states.get(i).copy());
+      State stateCopy = states.get(i).copy();
+      stateCopies[stateCopy.stateIndex] = stateCopy;
+      automat.registerState(stateCopy);
     }
     
     // Transitions
-    for (int i = 0; i < transitions.size(); i++) {
-      automat.transitions.add(transitions.get(i).copy(automat));
+    ArrayList<Transition> allTransitions = getTransitions();
+    for (int i = 0; i < allTransitions.size(); i++) {
+      Transition transition = allTransitions.get(i);
+      automat.registerTransition(transition.copy(stateCopies[transition.getTransitionStart().stateIndex],
+          stateCopies[transition.getTransitionEnd().stateIndex]));
     }
     
     return automat;
@@ -659,8 +788,9 @@ public class Automat {
   
   /** Updates all painting coordinates of all the transitions the automat has. */
   public void updatePainting() {
-    for (int i = 0; i < transitions.size(); i++) {
-      transitions.get(i).computePaintingCoordinates(transitions);
+    ArrayList<Transition> allTransitions = getTransitions();
+    for (int i = 0; i < allTransitions.size(); i++) {
+      allTransitions.get(i).computePaintingCoordinates(this);
     }
   }
   
@@ -689,12 +819,14 @@ public class Automat {
         break;
     }
     
-    // Replace the State
+    // Replace the State. The adjacency index is keyed by stateIndex which doesn't change, only
+    // the transitions of the state itself need their references updated.
     for (int i = 0; i < states.size(); i++) {
       if (states.get(i).equals(oldState)) {
-        Transition.replaceState(oldState, newState, transitions);
+        Transition.replaceState(oldState, newState, Transition.getTransitionsByState(oldState, this));
         
         states.set(i, newState);
+        statesByStateIndex.put(newState.stateIndex, newState);
       }
     }
   }
@@ -719,7 +851,15 @@ public class Automat {
   
   
   // Setters and Getters
+  /** Returns all transitions in the order they were added. The list must not be modified, add and
+   * delete transitions through the automat. */
   public ArrayList<Transition> getTransitions() {
+    if (transitionsStale) {
+      transitions.clear();
+      transitions.addAll(transitionSet);
+      transitionsStale = false;
+    }
+    
     return this.transitions;
   }
   
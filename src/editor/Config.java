@@ -112,6 +112,13 @@ public interface Config {
     String transformIsNEAAlready = "Automat is already a NEA";
     String transformIsDEAAlready = "Automat is already a DEA";
     String transformIsMinimalDEAAlready = "Automat is already a minimal DEA";
+    String transformationRunning = "Please wait for the running Transformation or cancel it";
+    String transformationCancelled = "Transformation cancelled";
+    // Discovered and pending states, see String.format()
+    String transformationProgress = "Transforming: %d States found, %d pending";
+    
+    // Word batch
+    String wordBatchRunning = "Testing the words of the file, the Results are shown when done";
   }
   
   /** Displayed ErrorMessages */
@@ -129,8 +136,19 @@ public interface Config {
     
     // Transformation
     String startStateMissing = "Please add a starting State";
+    String transformationOutOfMemory = "Not enough memory for the Transformation";
+    String transformationFailed = "The Transformation failed";
+    
+    // Word batch
+    String wordBatchFileError = "The words couldn't be read or the results couldn't be written";
+    String wordBatchFailed = "Testing the words failed";
   }
   
+  // Limits of the NEA -> DEA transformation started by the menu, the subset construction can
+  // create exponentially many states
+  int TRANSFORMATION_MAX_STATES = 20000;
+  long TRANSFORMATION_MAX_TABLE_BYTES = 256L * 1024 * 1024;
+  
   // In case the Transition has a reverseTransition, how far it is away from
   // the direct angle to its other state
   double TRANSITION_PAINT_ANGLE_OFFSET = 18 / 180.0d * Math.PI;
@@ -11,8 +11,16 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -20,15 +28,21 @@ import javax.swing.BorderFactory;
 import javax.swing.JFileChooser;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
-import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 import controlFlow.UserAction;
+import transformation.IncrementalWordTest;
 import transformation.Language;
 import transformation.Layout;
 import transformation.ReadSymbol;
 import transformation.Transformation;
+import transformation.TransformationAbortedException;
+import transformation.TransformationBudget;
+import transformation.TransformationProgressListener;
 import transformation.Util;
+import transformation.WordBatch;
+import transformation.WordBatchStatistics;
 
 public class MenuBar extends JMenuBar {
   private static final long serialVersionUID = 1L;
@@ -54,11 +68,21 @@ public class MenuBar extends JMenuBar {
   private MenuItem toNEA;
   private MenuItem toDEA;
   private MenuItem toMinimalDEA;
+  private MenuItem cancelTransformation;
   private MenuItem wordAccepted;
+  private MenuItem wordBatch;
+  private MenuItem cancelWordBatch;
+  
+  /** The budget of the running DEA-transformation, null if none is running. Only accessed on the
+   * event dispatch thread. */
+  private TransformationBudget runningTransformation;
+  /** The running word batch, null if none is running. Only accessed on the event dispatch thread. */
+  private WordBatch runningWordBatch;
   
   // file-choosers
   private final CustomFileChooser xmlFileChooser;
   private final CustomFileChooser pngFileChooser;
+  private final CustomFileChooser txtFileChooser;
   
   public MenuBar() {
     super();
@@ -66,6 +90,7 @@ public class MenuBar extends JMenuBar {
     // Create the file choosers
     xmlFileChooser = new CustomFileChooser("xml", new File("").getAbsolutePath() + "/savedAutomata/");
     pngFileChooser = new CustomFileChooser("png", new File("").getAbsolutePath() + "/exportedImages/");
+    txtFileChooser = new CustomFileChooser("txt", new File("").getAbsolutePath());
     
     // Init the Menus
     initFileMenu();
@@ -269,6 +294,11 @@ public class MenuBar extends JMenuBar {
       public void actionPerformed(java.awt.event.ActionEvent e) {
         Editor.stopWordAcceptedAnimation();
         
+        if (runningTransformation != null) {
+          Tooltip.setMessage(Config.Tooltips.transformationRunning, 0);
+          return;
+        }
+        
         Automat automat = Editor.getDrawablePanel().getAutomat();
         if (automat.getStateByStateIndex(0) == null) {
           ErrorMessage.setMessage(Config.ErrorMessages.startStateMissing);
@@ -296,6 +326,11 @@ public class MenuBar extends JMenuBar {
       public void actionPerformed(java.awt.event.ActionEvent e) {
         Editor.stopWordAcceptedAnimation();
         
+        if (runningTransformation != null) {
+          Tooltip.setMessage(Config.Tooltips.transformationRunning, 0);
+          return;
+        }
+        
         Automat automat = Editor.getDrawablePanel().getAutomat();
         if (automat.getStateByStateIndex(0) == null) {
           ErrorMessage.setMessage(Config.ErrorMessages.startStateMissing);
@@ -308,11 +343,7 @@ public class MenuBar extends JMenuBar {
         }
         
         // Automat is not a DEA, just a NEA or Epsilon-Automat
-        Automat automatDeepCopy = automat.copy();
-        automatDeepCopy = Transformation.transformToDEA(automatDeepCopy);
-        
-        Layout.layoutAutomat(automatDeepCopy);
-        Editor.changeAutonat(automatDeepCopy, true, "Transform to DFA (DEA)");
+        startTransformation(automat.copy(), false, "Transform to DFA (DEA)");
       }
     });
     automatMenu.add(toDEA);
@@ -323,24 +354,35 @@ public class MenuBar extends JMenuBar {
       public void actionPerformed(java.awt.event.ActionEvent e) {
         Editor.stopWordAcceptedAnimation();
         
+        if (runningTransformation != null) {
+          Tooltip.setMessage(Config.Tooltips.transformationRunning, 0);
+          return;
+        }
+        
         Automat automat = Editor.getDrawablePanel().getAutomat();
         if (automat.getStateByStateIndex(0) == null) {
           ErrorMessage.setMessage(Config.ErrorMessages.startStateMissing);
           return;
         }
         
-        // Get a minimal DEA, the Editors automat is untouched
-        Automat minDEA = Transformation.transformToMinimalDEA(Editor.getDrawablePanel().getAutomat());
-        if (minDEA != null) {
-          // The Editors current automat wasn't a minimal DEA already
-          Layout.layoutAutomat(minDEA);
-          Editor.changeAutonat(minDEA, true, "Transform to minimal DFA (DEA)");
-        } else
-          Tooltip.setMessage(Config.Tooltips.transformIsMinimalDEAAlready, 0);
+        // Get a minimal DEA, the Editors automat is untouched. Copied here, the user can go on
+        // editing while the transformation runs
+        startTransformation(automat.copy(), true, "Transform to minimal DFA (DEA)");
       }
     });
     automatMenu.add(toMinimalDEA);
     
+    // cancelTransformation, only enabled while a transformation is running
+    cancelTransformation = new MenuItem("Cancel Transformation");
+    cancelTransformation.addActionListener(new ActionListener() {
+      public void actionPerformed(java.awt.event.ActionEvent e) {
+        if (runningTransformation != null)
+          runningTransformation.cancel();
+      }
+    });
+    cancelTransformation.setEnabled(false);
+    automatMenu.add(cancelTransformation);
+    
     automatMenu.addSeparator();
     
     // wordAccepted
@@ -349,16 +391,14 @@ public class MenuBar extends JMenuBar {
       public void actionPerformed(java.awt.event.ActionEvent e) {
         Editor.stopWordAcceptedAnimation();
         
-        // Open an input dialog
-        String word = (String)JOptionPane.showInputDialog(Editor.getEditor(),
-            "Enter the word the automat should test for acceptance", "Word accepted",
-            JOptionPane.PLAIN_MESSAGE);
+        Automat automat = Editor.getDrawablePanel().getAutomat();
+        
+        // Open an input dialog, it tests the word for acceptance while it's typed
+        String word = new WordInputDialog(new IncrementalWordTest(new Language(automat))).getWord();
         
         if (word == null) 
           return; // the user aborted the dialog
         
-        Automat automat = Editor.getDrawablePanel().getAutomat();
-        
         // Store the traveled transitions in this list when the word is tested for acceptance
         ArrayList<ReadSymbol> readTransitionsSymbols = new ArrayList<ReadSymbol>();
         boolean wordAccepted = Language.wordAccepted(word, automat, readTransitionsSymbols);
@@ -369,6 +409,56 @@ public class MenuBar extends JMenuBar {
     });
     automatMenu.add(wordAccepted);
     
+    // wordBatch
+    wordBatch = new MenuItem("Words accepted from File");
+    wordBatch.addActionListener(new ActionListener() {
+      public void actionPerformed(java.awt.event.ActionEvent e) {
+        Editor.stopWordAcceptedAnimation();
+        
+        if (runningWordBatch != null) {
+          Tooltip.setMessage(Config.Tooltips.wordBatchRunning, 0);
+          return;
+        }
+        
+        Automat automat = Editor.getDrawablePanel().getAutomat();
+        if (automat.getStateByStateIndex(0) == null) {
+          ErrorMessage.setMessage(Config.ErrorMessages.startStateMissing);
+          return;
+        }
+        
+        // The words, one per line
+        if (txtFileChooser.showOpenDialog(Editor.getEditor()) != JFileChooser.APPROVE_OPTION)
+          return;
+        String wordsPath = txtFileChooser.getSelectedFile().getAbsolutePath();
+        
+        // The results, one line per word
+        if (txtFileChooser.showSaveDialog(Editor.getEditor()) != JFileChooser.APPROVE_OPTION)
+          return;
+        File resultsFile = txtFileChooser.getSelectedFile();
+        String resultsPath = resultsFile.getAbsolutePath();
+        
+        // Add .txt extension in case the file doesn't end with this extension
+        CustomFileFilter txtFileFilter = txtFileChooser.getCustomFileFilter();
+        if (!txtFileFilter.getExtension(resultsFile).equals(txtFileFilter.getExtension()))
+          resultsPath += "." + txtFileFilter.getExtension();
+        
+        // Compiled once on the event dispatch thread, the batch doesn't touch the automat itself
+        startWordBatch(new WordBatch(new Language(automat)), wordsPath, resultsPath);
+      }
+    });
+    automatMenu.add(wordBatch);
+    
+    // cancelWordBatch, only enabled while a word batch is running
+    cancelWordBatch = new MenuItem("Cancel Words accepted from File");
+    cancelWordBatch.addActionListener(new ActionListener() {
+      public void actionPerformed(java.awt.event.ActionEvent e) {
+        if (runningWordBatch != null)
+          runningWordBatch.cancel();
+      }
+    });
+    cancelWordBatch.setEnabled(false);
+    automatMenu.add(cancelWordBatch);
+    
     /*
     // regex to Automat
     regexToAutomat = new MenuItem("Regex to finite Automaton");
@@ -392,6 +482,148 @@ public class MenuBar extends JMenuBar {
     this.add(automatMenu);
   }
   
+  /** Runs the NEA -> DEA (and minimization) transformation on its own thread, so the editor stays
+   * responsive. Shows the progress as a tooltip, the transformation can be cancelled by the menu
+   * and stops at the limits of the Config. The result is handed back on the event dispatch thread,
+   * also if the transformation fails.
+   * @param automat A DEA is returned and laid out as the result itself, pass a copy of the Editors
+   * automat. */
+  private void startTransformation(final Automat automat, final boolean minimize, final String undoRedoText) {
+    final TransformationBudget budget = new TransformationBudget(Config.TRANSFORMATION_MAX_STATES,
+        Config.TRANSFORMATION_MAX_TABLE_BYTES);
+    budget.setProgressListener(new TransformationProgressListener() {
+      /** The latest progress not shown yet, null if no update is queued on the event dispatch thread. */
+      private final AtomicReference<String> pendingMessage = new AtomicReference<String>();
+      
+      public void progress(int discoveredStates, int pendingStates) {
+        String message = String.format(Config.Tooltips.transformationProgress, discoveredStates, pendingStates);
+        
+        // Called on the transformation thread, one queued update shows the latest progress only
+        if (pendingMessage.getAndSet(message) == null) {
+          SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+              String latestMessage = pendingMessage.getAndSet(null);
+              if (runningTransformation == budget)
+                Tooltip.setMessage(latestMessage, 0);
+            }
+          });
+        }
+      }
+    });
+    
+    runningTransformation = budget;
+    cancelTransformation.setEnabled(true);
+    
+    Thread transformationThread = new Thread(new Runnable() {
+      public void run() {
+        Automat result = null;
+        // Stays set if the transformation fails unexpectedly, the thread rethrows the failure
+        String abortMessage = Config.ErrorMessages.transformationFailed;
+        
+        try {
+          if (minimize)
+            result = Transformation.transformToMinimalDEA(automat, Transformation.MINIMIZATION_AUTOMATIC,
+                budget, Transformation.DETERMINIZATION_PARALLEL);
+          else
+            result = Transformation.transformToDEA(automat, budget,
+                Transformation.DETERMINIZATION_PARALLEL);
+          
+          if (result != null)
+            Layout.layoutAutomat(result);
+          
+          abortMessage = null;
+        } catch (TransformationAbortedException e) {
+          abortMessage = e.getReason() != TransformationAbortedException.CANCELLED ? e.getMessage() : null;
+        } catch (OutOfMemoryError e) {
+          // The table is garbage already, the editor keeps running
+          abortMessage = Config.ErrorMessages.transformationOutOfMemory;
+        } finally {
+          // Always hand back, otherwise the menu stays locked by the running transformation
+          final Automat finishedResult = result;
+          final String finishedAbortMessage = abortMessage;
+          SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+              finishTransformation(budget, finishedResult, finishedAbortMessage, minimize, undoRedoText);
+            }
+          });
+        }
+      }
+    }, "Transformation");
+    transformationThread.setDaemon(true);
+    transformationThread.start();
+  }
+  
+  /** Called on the event dispatch thread when the transformation thread is done. */
+  private void finishTransformation(TransformationBudget budget, Automat result, String abortMessage,
+      boolean minimize, String undoRedoText) {
+    runningTransformation = null;
+    cancelTransformation.setEnabled(false);
+    
+    if (budget.isCancelled())
+      Tooltip.setMessage(Config.Tooltips.transformationCancelled, 0);
+    else if (abortMessage != null)
+      ErrorMessage.setMessage(abortMessage);
+    else if (result != null)
+      Editor.changeAutonat(result, true, undoRedoText);
+    else if (minimize)
+      Tooltip.setMessage(Config.Tooltips.transformIsMinimalDEAAlready, 0);
+  }
+  
+  /** Tests the words of the file on its own thread and writes the results into the results-file.
+   * The statistics or an error are shown when done, the batch can be cancelled by the menu. */
+  private void startWordBatch(final WordBatch batch, final String wordsPath, final String resultsPath) {
+    runningWordBatch = batch;
+    cancelWordBatch.setEnabled(true);
+    Tooltip.setMessage(Config.Tooltips.wordBatchRunning, 0);
+    
+    Thread batchThread = new Thread(new Runnable() {
+      public void run() {
+        WordBatchStatistics statistics = null;
+        // Stays set if the batch fails unexpectedly, the thread rethrows the failure
+        String errorMessage = Config.ErrorMessages.wordBatchFailed;
+        
+        BufferedReader words = null;
+        BufferedWriter results = null;
+        try {
+          words = new BufferedReader(new InputStreamReader(new FileInputStream(wordsPath), "UTF-8"));
+          results = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resultsPath), "UTF-8"));
+          statistics = batch.run(words, results);
+          errorMessage = null;
+        } catch (IOException e) {
+          errorMessage = Config.ErrorMessages.wordBatchFileError;
+        } finally {
+          try {
+            if (words != null)
+              words.close();
+            if (results != null)
+              results.close();
+          } catch (IOException e) {
+            if (errorMessage == null)
+              errorMessage = Config.ErrorMessages.wordBatchFileError;
+          }
+          
+          // Always hand back, otherwise every later batch is refused as running
+          final WordBatchStatistics finishedStatistics = statistics;
+          final String finishedErrorMessage = errorMessage;
+          SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+              runningWordBatch = null;
+              cancelWordBatch.setEnabled(false);
+              
+              if (finishedErrorMessage != null)
+                ErrorMessage.setMessage(finishedErrorMessage);
+              else
+                new TextFrame("Words accepted from File", new Dimension(500, 160),
+                    finishedStatistics.getSummary() + "\nResults: " + resultsPath);
+            }
+          });
+        }
+      }
+    }, "Word batch");
+    batchThread.setDaemon(true);
+    batchThread.start();
+  }
+  
   /** Saves an Automat to as an XML-File. */
   private void saveAutomat() {
     int returnVal = xmlFileChooser.showSaveDialog(Editor.getEditor());
@@ -24,9 +24,6 @@ public class State extends Shape {
    * State.updateNeighborAmounts() to compute it. */
   protected int neighborAmount;
   
-  /** For graph traversation only. */
-  private boolean marked;
-  
   // Constants for state-type changing
   public static final int STATE = 0;
   public static final int START_STATE = 1;
@@ -91,34 +88,21 @@ public class State extends Shape {
   public ArrayList<Transition> deleteTransitions(Automat automat) {
     // Gather all elements to be removed from the ArrayList first, no removal of ArrayLists
     // elements while looped through that ArrayList
-    ArrayList<Transition> stateTransitions = getTransitions(automat.getTransitions());
+    ArrayList<Transition> stateTransitions = Transition.getTransitionsByState(this, automat);
     
-    // Remove them one-by-one
-    for (int i = 0; i < stateTransitions.size(); i++) {
+    // Remove them one-by-one from the last on, so they are found at the end of the states
+    // adjacency-lists
+    for (int i = stateTransitions.size() - 1; i >= 0; i--) {
       automat.deleteTransition(stateTransitions.get(i), false);
     }
     
     return stateTransitions;
   }
   
-  /** Returns a list with all transitions that have the state as a start- or end-state. */
-  public ArrayList<Transition> getTransitions(ArrayList<Transition> transitions) {
-    ArrayList<Transition> stateTransitions = new ArrayList<Transition>();
-    
-    for (int i = 0; i < transitions.size(); i++) {
-      if (this.equals(transitions.get(i).getTransitionStart()) ||
-          this.equals(transitions.get(i).getTransitionEnd())) {
-        stateTransitions.add(transitions.get(i));
-      }
-    }
-    
-    return stateTransitions;
-  }
-  
   /** Checks whether this state has an Transition to the destination State.
    * @return the Transition or null if it has none. */
-  public Transition gotTransitionTo(State destinationState, ArrayList<Transition> transitions) {
-    return Transition.isInArrayList(this.stateIndex, destinationState.stateIndex, transitions);
+  public Transition gotTransitionTo(State destinationState, Automat automat) {
+    return automat.getTransition(this.stateIndex, destinationState.stateIndex);
   }
   
   /** Moves the state to the passed coordinates. Doesn't update the states transitions. */
@@ -135,8 +119,8 @@ public class State extends Shape {
   
   /** Checks whether this state has an ArcTransition.
    * @return the ArcTransition or null if it has none. */
-  public Transition gotArcTransition(ArrayList<Transition> transitions) {
-    return Transition.isInArrayList(this.stateIndex, this.stateIndex, transitions);
+  public Transition gotArcTransition(Automat automat) {
+    return automat.getTransition(this.stateIndex, this.stateIndex);
   }
   
   /** Returns a deep copy of the State. */
@@ -151,7 +135,7 @@ public class State extends Shape {
     for (int i = 0; i < automat.getStates().size(); i++) {
       State state = automat.getStates().get(i);
       ArrayList<Transition> stateLineTransitions =
-          Transition.getLineTransitionsByState(state, automat.getTransitions());
+          Transition.getLineTransitionsByState(state, automat);
 
       Set<Integer> neighbors = new HashSet<Integer>();
       
@@ -165,13 +149,6 @@ public class State extends Shape {
     }
   }
   
-  /** Sets the marked flag to false for all states in the passed list.*/
-  public static void unmarkStates(ArrayList<State> states) {
-    for (int i = 0; i < states.size(); i++) {
-      states.get(i).marked = false;
-    }
-  }
-  
   /** Returns the found state, or null otherwise. */
   public static State getStateByStateIndex(int stateIndex, ArrayList<State> states) {
     for (int i = 0; i < states.size(); i++) {
@@ -211,12 +188,4 @@ public class State extends Shape {
   public int getNeighborAmount() {
     return this.neighborAmount;
   }
-  
-  public boolean isMarked() {
-    return this.marked;
-  }
-  
-  public void setMarked(boolean marked) {
-    this.marked = marked;
-  }
 }
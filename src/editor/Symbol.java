@@ -15,6 +15,7 @@ public class Symbol extends Shape {
   /** A reference on the Transition the Symbol belongs to. */
   private Transition hostTransition;
   private char symbol;
+  /** null until the symbol is painted the first time. */
   private Point symbolPaintingMiddle;
   /** positive distance from symbolPaintingMiddle to the left border of the bounding box. Right
    * side is the same. */
@@ -22,14 +23,22 @@ public class Symbol extends Shape {
   /** Box goes down for the same amount. */
   private static int boundingBoxUp; 
   
+  /** Each valid symbol has its own bit in a symbol-mask: '0'-'9' are bits 0-9, 'a'-'z' bits 10-35
+   * and Epsilon is bit 36. A set of symbols fits into one long this way. */
+  public static final int SYMBOL_MASK_BITS = 37;
+  public static final long EPSILON_MASK = 1L << 36;
+  
   public Symbol(Transition hostTransition, char symbol) {
     this.hostTransition = hostTransition;
     this.symbol = symbol;
-    symbolPaintingMiddle = new Point();
   }
   
   @Override
   public boolean mouseClickHit(int mouseX, int mouseY) {
+    // Never painted, can't be hit
+    if (symbolPaintingMiddle == null)
+      return false;
+    
     // Simple Box collision. boundingBoxLeft is the same for the right side. Same with Up.
     // Tolerate 1 pixel more for the horizontal collision, it's a better user experience.
     if (mouseX >= symbolPaintingMiddle.x - boundingBoxLeft -1 &&
@@ -115,6 +124,12 @@ public class Symbol extends Shape {
     int commaWidth = fontMetrics.stringWidth(",");
     int whiteSpace = 1;
     
+    // The middlePoints are allocated on the first painting only
+    for (int i = 0; i < symbols.size(); i++) {
+      if (symbols.get(i).symbolPaintingMiddle == null)
+        symbols.get(i).symbolPaintingMiddle = new Point();
+    }
+    
     // First symbol is at the dockingPoint
     symbols.get(0).symbolPaintingMiddle.x = symbolDockingPoint.x;
     symbols.get(0).symbolPaintingMiddle.y = symbolDockingPoint.y;
@@ -173,6 +188,43 @@ public class Symbol extends Shape {
     return false;
   }
   
+  /** Returns the symbol-mask bit of the passed symbol, 0 for invalid symbols. */
+  public static long toMask(char symbol) {
+    if (symbol >= '0' && symbol <= '9')
+      return 1L << (symbol - '0');
+    
+    if (symbol >= 'a' && symbol <= 'z')
+      return 1L << (symbol - 'a' + 10);
+    
+    if (symbol == '\u03B5')
+      return EPSILON_MASK;
+    
+    return 0L;
+  }
+  
+  /** Returns the symbol of the passed bit-position of a symbol-mask. Inverse of toMask(). */
+  public static char fromMaskBit(int bit) {
+    if (bit < 10)
+      return (char)('0' + bit);
+    
+    if (bit < 36)
+      return (char)('a' + bit - 10);
+    
+    return '\u03B5';
+  }
+  
+  /** Returns the symbols of the passed symbol-mask, ordered like the bits (digits, letters, Epsilon). */
+  public static ArrayList<Character> fromMask(long symbolMask) {
+    ArrayList<Character> symbols = new ArrayList<Character>();
+    
+    while (symbolMask != 0) {
+      symbols.add(fromMaskBit(Long.numberOfTrailingZeros(symbolMask)));
+      symbolMask &= symbolMask - 1; // clear the lowest set bit
+    }
+    
+    return symbols;
+  }
+  
   /** Returns a deep copy of the Symbol. */
   public Symbol copy(Transition hostTransition) {
     Symbol newSymbol = new Symbol(hostTransition, symbol);
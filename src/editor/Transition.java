@@ -18,24 +18,32 @@ public class Transition extends Shape {
   private State transitionEnd;
   // A transition can have one or more symbols
   private ArrayList<Symbol> symbols;
+  /** The same symbols as a bitmask (see Symbol.toMask()) for O(1) symbol tests. */
+  private long symbolMask;
   
-  // Painting information. Either a TransitionPaintLine or a TransitionPaintArc
+  // Painting information. Either a TransitionPaintLine or a TransitionPaintArc, null until
+  // the first access by getTransitionPaint()
   private TransitionPaint transitionPaint;
   
-  /** Only this constructor allowed, default-constructor not permitted. */
+  /** Only this constructor allowed, default-constructor not permitted. The TransitionPaint is
+   * created on the first painting access, transitions that are only computed on never get one. */
   public Transition(State transitionStart, State transitionEnd) {
     this.transitionStart = transitionStart;
     this.transitionEnd = transitionEnd;
     symbols = new ArrayList<Symbol>();
-    
+  }
+  
+  /** A TransitionPaintArc for an ArcTransition, a TransitionPaintLine otherwise. */
+  private TransitionPaint createTransitionPaint() {
     if (transitionStart.getStateIndex() == transitionEnd.getStateIndex())
-      transitionPaint = new TransitionPaintArc(this);
+      return new TransitionPaintArc(this);
     else
-      transitionPaint = new TransitionPaintLine(this);
+      return new TransitionPaintLine(this);
   }
   
   public void paint(Graphics2D graphics2D) {
     // Paint the Transitions, a Line or an Arc depending on its transitionPaints type
+    TransitionPaint transitionPaint = getTransitionPaint();
     transitionPaint.paint(graphics2D);
     
     // In case of a LineTransition that is not painted (minimal distance not surpassed),
@@ -53,7 +61,7 @@ public class Transition extends Shape {
   
   @Override
   public boolean mouseClickHit(int mouseX, int mouseY) {
-    return transitionPaint.mouseClickHit(new Point(mouseX, mouseY));
+    return getTransitionPaint().mouseClickHit(new Point(mouseX, mouseY));
   }
 
   @Override
@@ -71,6 +79,7 @@ public class Transition extends Shape {
     
     if (!containsSymbol(symbol)) {
       symbols.add(new Symbol(this, symbol));
+      symbolMask |= Symbol.toMask(symbol);
       
       if (addActionToControlFlow)
         UserAction.addAction(new AddedSymbol(symbol, this));
@@ -89,14 +98,8 @@ public class Transition extends Shape {
   
   /** Checks whether the passed character is already in the list.
    * @return true if the character is in the list, false otherwise. */
-  private boolean containsSymbol(char symbol) {
-    for (int i = 0; i < symbols.size(); i++) {
-      if (symbols.get(i).getSymbol() == symbol) {
-        return true;
-      }
-    }
-    
-    return false;
+  public boolean containsSymbol(char symbol) {
+    return (symbolMask & Symbol.toMask(symbol)) != 0;
   }
   
   /** Removes a symbol from the Transitions Symbol-list. */
@@ -107,6 +110,7 @@ public class Transition extends Shape {
     for (int i = 0; i < symbols.size(); i++) {
       if (symbol == symbols.get(i).getSymbol()) {
         symbols.remove(i);
+        symbolMask &= ~Symbol.toMask(symbol);
         
         if (addActionToControlFlow)
           UserAction.addAction(new RemovedSymbol(symbol, this));
@@ -116,140 +120,110 @@ public class Transition extends Shape {
     }
   }
   
-  /** Checks whether this Transition is in the passed list of Transitions. Compares
-   * only by States stateIndex, not States.equal(...) since the States have a flag isSelected
-   * which would lead to wrong results. Returns the transition from the list in case it has
-   * the same indices, or null if the transition is not present in the list.  */
-  public Transition isInArrayList(ArrayList<Transition> transitions) {
-    for (int i = 0; i < transitions.size(); i++) {
-      // Same transitionStartIndex and same transitionEndIndex? Directions of the transition matters.
-      if (this.getTransitionStart().getStateIndex() == transitions.get(i).getTransitionStart().getStateIndex() &&
-          this.getTransitionEnd().getStateIndex() == transitions.get(i).getTransitionEnd().getStateIndex()) {
-        return transitions.get(i);
-      }
-    }
-    
-    return null; 
-  }
-  
-  /** Checks whether the passed list contains a Transition with the passed indices. */
-  public static Transition isInArrayList(int startStateIndex, int endStateIndex,
-      ArrayList<Transition> transitions) {
-    for (int i = 0; i < transitions.size(); i++) {
-      // Same transitionStartIndex and same transitionEndIndex? Direction of the transition matters.
-      if (startStateIndex == transitions.get(i).getTransitionStart().getStateIndex() &&
-          endStateIndex == transitions.get(i).getTransitionEnd().getStateIndex()) {
-        return transitions.get(i);
-      }
-    }
-    
-    return null; 
-  }
-  
   /** Computes the painting information based on the type of transitionPaint. */
-  public void computePaintingCoordinates(ArrayList<Transition> transitions) {
-    transitionPaint.computePaintingCoordinates(transitions);
+  public void computePaintingCoordinates(Automat automat) {
+    getTransitionPaint().computePaintingCoordinates(automat);
   }
   
-  /** Checks whether the passed transition-list containes a transition with reverse direction,
+  /** Checks whether the automat containes a transition with reverse direction,
    * start- and end-states switched. Returns null for ArcTransitions.
-   * @return Returns the reverseTransition, or null if the list doesn't contain it. */
-  public Transition gotReverseTransition(ArrayList<Transition> transitions) {
+   * @return Returns the reverseTransition, or null if the automat doesn't contain it. */
+  public Transition gotReverseTransition(Automat automat) {
     if (this.isArcTransition())
       return null;
     
-    // Build a temporary transition with start- and end-states switched
-    Transition reverseTransition = new Transition(this.transitionEnd, this.transitionStart);
-    
-    // Check if the reversed Transition is in the passed list
-    return reverseTransition.isInArrayList(transitions);
+    return automat.getTransition(this.transitionEnd.stateIndex, this.transitionStart.stateIndex);
   }
   
-  /** Returns all Transitions from a passed list that have the passed state as a start-state. */
-  public static ArrayList<Transition> getTransitionsByStartState(State startState,
-      ArrayList<Transition> transitions) {
+  /** Returns all Transitions of the automat that have the passed state as a start-state.
+   * Answered from the automats adjacency index in O(degree). */
+  public static ArrayList<Transition> getTransitionsByStartState(State startState, Automat automat) {
     ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (startState.stateIndex == transitions.get(i).getTransitionStart().stateIndex)
-        foundTransitions.add(transitions.get(i));
-    }
+    ArrayList<Transition> outgoingTransitions = automat.getOutgoingTransitions(startState);
+    if (outgoingTransitions != null)
+      foundTransitions.addAll(outgoingTransitions);
     
     return foundTransitions;
   }
   
-  /** Returns all Transitions from a passed list that have the passed state as a starting-state
+  /** Returns all Transitions of the automat that have the passed state as a starting-state
    * and contain the passed symbol in their symbol-list. Can contain the passed startState itself. */
   public static ArrayList<Transition> getTransitionsByStartStateAndSymbol(State startState, Character symbol,
-      ArrayList<Transition> transitions) {
+      Automat automat) {
     ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (startState.stateIndex == transitions.get(i).getTransitionStart().stateIndex) {
-        if (transitions.get(i).containsSymbol(symbol.charValue()))
-          foundTransitions.add(transitions.get(i));
-      }
+    ArrayList<Transition> outgoingTransitions = automat.getOutgoingTransitions(startState);
+    if (outgoingTransitions == null)
+      return foundTransitions;
+    
+    for (int i = 0; i < outgoingTransitions.size(); i++) {
+      if (outgoingTransitions.get(i).containsSymbol(symbol.charValue()))
+        foundTransitions.add(outgoingTransitions.get(i));
     }
     
     return foundTransitions;
   }
   
-  /** Returns all Transitions from a passed list that have the passed state as an end-state. */
-  public static ArrayList<Transition> getTransitionsByEndState(State endState,
-      ArrayList<Transition> transitions) {
+  /** Returns all Transitions of the automat that have the passed state as an end-state. */
+  public static ArrayList<Transition> getTransitionsByEndState(State endState, Automat automat) {
     ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (endState.stateIndex == transitions.get(i).getTransitionEnd().stateIndex)
-        foundTransitions.add(transitions.get(i));
-    }
+    ArrayList<Transition> incomingTransitions = automat.getIncomingTransitions(endState);
+    if (incomingTransitions != null)
+      foundTransitions.addAll(incomingTransitions);
     
     return foundTransitions;
   }
   
-  /** Returns all Transitions from a passed list that have the passed state as a start-state or end-state.
-   * Also returns arcTransitions (same start- and end-state). */
-  public static ArrayList<Transition> getTransitionsByState(State state,
-      ArrayList<Transition> transitions) {
-    ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
+  /** Returns all Transitions of the automat that have the passed state as a start-state or end-state.
+   * Also returns arcTransitions (same start- and end-state), but only once. */
+  public static ArrayList<Transition> getTransitionsByState(State state, Automat automat) {
+    ArrayList<Transition> foundTransitions = getTransitionsByStartState(state, automat);
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (state.stateIndex == transitions.get(i).getTransitionStart().stateIndex ||
-          state.stateIndex == transitions.get(i).getTransitionEnd().stateIndex)
-        foundTransitions.add(transitions.get(i));
+    ArrayList<Transition> incomingTransitions = automat.getIncomingTransitions(state);
+    if (incomingTransitions == null)
+      return foundTransitions;
+    
+    for (int i = 0; i < incomingTransitions.size(); i++) {
+      // ArcTransitions are in the outgoing list already
+      if (!incomingTransitions.get(i).isArcTransition())
+        foundTransitions.add(incomingTransitions.get(i));
     }
     
     return foundTransitions;
   }
   
-  /** Returns all LineTransitions from a passed list that have the passed state as a start-state or
+  /** Returns all LineTransitions of the automat that have the passed state as a start-state or
    * end-state. Filters out arcTransitions (same start- and end-state). */
-  public static ArrayList<Transition> getLineTransitionsByState(State state,
-      ArrayList<Transition> transitions) {
+  public static ArrayList<Transition> getLineTransitionsByState(State state, Automat automat) {
     ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (state.stateIndex == transitions.get(i).getTransitionStart().stateIndex ||
-          state.stateIndex == transitions.get(i).getTransitionEnd().stateIndex) {
-        if (!transitions.get(i).isArcTransition())
-          foundTransitions.add(transitions.get(i));
+    ArrayList<Transition> outgoingTransitions = automat.getOutgoingTransitions(state);
+    if (outgoingTransitions != null) {
+      for (int i = 0; i < outgoingTransitions.size(); i++) {
+        if (!outgoingTransitions.get(i).isArcTransition())
+          foundTransitions.add(outgoingTransitions.get(i));
       }
     }
     
+    foundTransitions.addAll(getLineTransitionsByEndState(state, automat));
+    
     return foundTransitions;
   }
   
-  /** Returns all LineTransitions from a passed list that have the passed state as an end-state.
+  /** Returns all LineTransitions of the automat that have the passed state as an end-state.
    * Filters out arcTransitions (same start- and end-state). */
-  public static ArrayList<Transition> getLineTransitionsByEndState(State state,
-      ArrayList<Transition> transitions) {
+  public static ArrayList<Transition> getLineTransitionsByEndState(State state, Automat automat) {
     ArrayList<Transition> foundTransitions = new ArrayList<Transition>();
     
-    for (int i = 0; i < transitions.size(); i++) {
-      if (state.stateIndex == transitions.get(i).getTransitionEnd().stateIndex) {
-        if (!transitions.get(i).isArcTransition())
-          foundTransitions.add(transitions.get(i));
-      }
+    ArrayList<Transition> incomingTransitions = automat.getIncomingTransitions(state);
+    if (incomingTransitions == null)
+      return foundTransitions;
+    
+    for (int i = 0; i < incomingTransitions.size(); i++) {
+      if (!incomingTransitions.get(i).isArcTransition())
+        foundTransitions.add(incomingTransitions.get(i));
     }
     
     return foundTransitions;
@@ -263,7 +237,7 @@ public class Transition extends Shape {
     
     for (int i = 0; i < transitions.size(); i++) {
       // The Transition is a Transition with an Epsilon-Symbol only
-      if (transitions.get(i).isEpsilonTransition() && transitions.get(i).getSymbols().size() <= 1)
+      if (transitions.get(i).getSymbolMask() == Symbol.EPSILON_MASK)
         continue;
       
       // Else the Transition will be added
@@ -294,13 +268,19 @@ public class Transition extends Shape {
   /** Returns a deep copy of the Transition. Copies the transitions symbols as well. 
    * @param The automat on which the transitions states should refer to. */
   public Transition copy(Automat automat) {
-    Transition transition = new Transition(automat.getStateByStateIndex(transitionStart.stateIndex),
+    return copy(automat.getStateByStateIndex(transitionStart.stateIndex),
         automat.getStateByStateIndex(transitionEnd.stateIndex));
+  }
+  
+  /** Copies the transition onto the passed, already copied start- and end-states. */
+  Transition copy(State transitionStartCopy, State transitionEndCopy) {
+    Transition transition = new Transition(transitionStartCopy, transitionEndCopy);
     
     // Copy the symbols
     for (int i = 0; i < symbols.size(); i++) {
       transition.symbols.add(symbols.get(i).copy(transition));
     }
+    transition.symbolMask = symbolMask;
     
     return transition;
   }
@@ -322,12 +302,7 @@ public class Transition extends Shape {
   
   /** Returns true if the Transition contains the empty word ε, \u03B5 in Unicode as the Java char value. */
   public boolean isEpsilonTransition() {
-    for (int i = 0; i < symbols.size(); i++) {
-      if (symbols.get(i).getSymbol() == '\u03B5')
-        return true;
-    }
-    
-    return false;
+    return (symbolMask & Symbol.EPSILON_MASK) != 0;
   }
   
   // Setters and Getters
@@ -347,7 +322,15 @@ public class Transition extends Shape {
     return this.symbols;
   }
   
+  public long getSymbolMask() {
+    return this.symbolMask;
+  }
+  
+  /** Creates the TransitionPaint on the first call. */
   public TransitionPaint getTransitionPaint() {
+    if (this.transitionPaint == null)
+      this.transitionPaint = createTransitionPaint();
+    
     return this.transitionPaint;
   }
 }
@@ -0,0 +1,120 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package editor;
+
+/** Hash-map from a (start-stateIndex, end-stateIndex) pair to the Transition of the automat
+ * between these two states. The pair is packed into one long key, open addressing with linear
+ * probing is used so lookups neither box the key nor allocate anything. */
+public class TransitionMap {
+  private long[] keys;
+  /** null marks an empty slot. */
+  private Transition[] values;
+  private int size;
+  
+  public TransitionMap() {
+    keys = new long[16];
+    values = new Transition[16];
+  }
+  
+  /** Returns the transition from the start- to the end-state, or null if there is none. */
+  public Transition get(int startStateIndex, int endStateIndex) {
+    long key = packKey(startStateIndex, endStateIndex);
+    int mask = values.length - 1;
+    
+    for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key)
+        return values[slot];
+    }
+    
+    return null;
+  }
+  
+  /** Maps the transition by its start- and end-states indices. Replaces a previous mapping. */
+  public void put(Transition transition) {
+    // Keep the load factor below 0.5 so the probing sequences stay short
+    if ((size + 1) * 2 > values.length)
+      resize(values.length * 2);
+    
+    insert(packKey(transition.getTransitionStart().stateIndex, transition.getTransitionEnd().stateIndex),
+        transition);
+  }
+  
+  /** Removes the mapping of the passed start- and end-state indices if there is one. */
+  public void remove(int startStateIndex, int endStateIndex) {
+    long key = packKey(startStateIndex, endStateIndex);
+    int mask = values.length - 1;
+    
+    int slot = hash(key) & mask;
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    
+    if (values[slot] == null)
+      return;
+    
+    values[slot] = null;
+    size--;
+    
+    // Backward-shift deletion: re-insert the rest of the probing cluster so no lookup
+    // stops early at the freed slot.
+    for (slot = (slot + 1) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+      long movedKey = keys[slot];
+      Transition movedValue = values[slot];
+      values[slot] = null;
+      size--;
+      insert(movedKey, movedValue);
+    }
+  }
+  
+  /** Removes all mappings. */
+  public void clear() {
+    keys = new long[16];
+    values = new Transition[16];
+    size = 0;
+  }
+  
+  private void insert(long key, Transition transition) {
+    int mask = values.length - 1;
+    int slot = hash(key) & mask;
+    
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        values[slot] = transition;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    
+    keys[slot] = key;
+    values[slot] = transition;
+    size++;
+  }
+  
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    Transition[] oldValues = values;
+    
+    keys = new long[capacity];
+    values = new Transition[capacity];
+    size = 0;
+    
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null)
+        insert(oldKeys[i], oldValues[i]);
+    }
+  }
+  
+  /** Packs both stateIndices into one long, the start-state in the upper 32 bits. */
+  private static long packKey(int startStateIndex, int endStateIndex) {
+    return ((long) startStateIndex << 32) | (endStateIndex & 0xFFFFFFFFL);
+  }
+  
+  /** Spreads the bits of the key, consecutive stateIndices would cluster otherwise. */
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -8,11 +8,10 @@ package editor;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.util.ArrayList;
 
 public abstract class TransitionPaint {
   public abstract void paint(Graphics2D graphics2D);
-  public abstract void computePaintingCoordinates(ArrayList<Transition> transitions);
+  public abstract void computePaintingCoordinates(Automat automat);
   public abstract void computeSymbolDockingPoint();
   public abstract Point getSymbolDockingPoint();
   public abstract int getSymbolDirection();
@@ -54,9 +54,9 @@ public class TransitionPaintArc extends TransitionPaint {
   }
   
   /** Entry-point for the painting information computation. */
-  public void computePaintingCoordinates(ArrayList<Transition> transitions) {
+  public void computePaintingCoordinates(Automat automat) {
     // Determine the middle of the biggest free area on the circle of the state.
-    computeTransitionAngle(transitions);
+    computeTransitionAngle(automat);
     
     // Compute the parameters for Swings drawArc-function
     computeArc();
@@ -121,12 +121,11 @@ public class TransitionPaintArc extends TransitionPaint {
   }
   
   /** Determine the middle of the biggest free area on the circle of the state */
-  private void computeTransitionAngle(ArrayList<Transition> transitions) {
+  private void computeTransitionAngle(Automat automat) {
     State hostState = aggregateTransition.getTransitionStart();
     
     // Get all LineTransitions that involve the ArcTransitions state
-    ArrayList<Transition> lineTransitions = Transition.getLineTransitionsByState(
-        hostState, transitions);
+    ArrayList<Transition> lineTransitions = Transition.getLineTransitionsByState(hostState, automat);
 
     // Get a list of all Transition-PaintingPoints on the states circle
     ArrayList<Point> circlePoints = getStateCirclePoints(lineTransitions);
@@ -8,7 +8,6 @@ package editor;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.util.ArrayList;
 
 /** Painting information of a normal transition of a different start- and end-state,
  * resulting in a straight line with a little arrow up front. */
@@ -64,29 +63,27 @@ public class TransitionPaintLine extends TransitionPaint {
   /** Entry point of the graphical computation. Computes the (x, y)-coordinates of the Transitions
    * start- and end-point. Distinguishes if there's a Transition with the reverse direction already.
    * Also updates the coordinates of it's reverse-Transition if it has one. */
-  public void computePaintingCoordinates(ArrayList<Transition> transitions) {
-    computePaintingCoordinatesLine(transitions);
+  public void computePaintingCoordinates(Automat automat) {
+    computePaintingCoordinatesLine(automat);
     
     // If the two states of the aggregateTransition have ArcTransitions, update their 
     // painting information.
     // Does the Transitions startState has an ArcTransition?
-    Transition transition = Transition.isInArrayList(aggregateTransition.getTransitionStart().stateIndex,
-        aggregateTransition.getTransitionStart().stateIndex, transitions);
+    Transition transition = aggregateTransition.getTransitionStart().gotArcTransition(automat);
     if (transition != null) {
-      transition.computePaintingCoordinates(transitions);
+      transition.computePaintingCoordinates(automat);
     }
     
     // Does the Transitions endState has an ArcTransition?
-    transition = Transition.isInArrayList(aggregateTransition.getTransitionEnd().stateIndex,
-        aggregateTransition.getTransitionEnd().stateIndex, transitions);
+    transition = aggregateTransition.getTransitionEnd().gotArcTransition(automat);
     if (transition != null) {
-      transition.computePaintingCoordinates(transitions);
+      transition.computePaintingCoordinates(automat);
     }
     
     // Update the symbol painting
     this.computeSymbolDockingPoint();
     
-    Transition reverseTransition = aggregateTransition.gotReverseTransition(transitions);
+    Transition reverseTransition = aggregateTransition.gotReverseTransition(automat);
     if (reverseTransition != null) {
       reverseTransition.getTransitionPaint().computeSymbolDockingPoint();
     }
@@ -96,7 +93,7 @@ public class TransitionPaintLine extends TransitionPaint {
    * in a straight line with an arrow. Computes the (x, y)-coordinates of the Transitions
    * start- and end-point. Distinguishes if there's a Transition with the reverse direction
    * already. Also updates the coordinates of it's reverse-Transition if it has one. */
-  private void computePaintingCoordinatesLine(ArrayList<Transition> transitions) {
+  private void computePaintingCoordinatesLine(Automat automat) {
     // computed in Radian
     this.directionAngle = computeAngle();
     
@@ -106,7 +103,7 @@ public class TransitionPaintLine extends TransitionPaint {
     
     // In case there's a reverse transition, shift the transitions painted line
     // a bit away from the direct states center-to-center line by an offsetAngle
-    Transition reverseTransition = aggregateTransition.gotReverseTransition(transitions);
+    Transition reverseTransition = aggregateTransition.gotReverseTransition(automat);
     if (reverseTransition != null) {
       startAngle += Config.TRANSITION_PAINT_ANGLE_OFFSET;
       endAngle -= Config.TRANSITION_PAINT_ANGLE_OFFSET;
@@ -0,0 +1,119 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package editor;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import transformation.IncrementalWordTest;
+
+/** Modal input dialog of the word to test for acceptance. Shows after every keystroke whether the
+ * word typed so far is accepted. Blocks until the user closes it, getWord() returns the entered
+ * word afterwards. */
+public class WordInputDialog extends JDialog {
+  private static final long serialVersionUID = 1L;
+  
+  private final IncrementalWordTest wordTest;
+  private final JTextField wordField;
+  private final JLabel resultLabel;
+  /** null if the user aborted the dialog. */
+  private String word;
+  
+  public WordInputDialog(IncrementalWordTest wordTest) {
+    super(Editor.getEditor(), "Word accepted", true);
+    this.wordTest = wordTest;
+    
+    //TEXT FIELD AND RESULT
+    wordField = new JTextField(24);
+    resultLabel = new JLabel(" ");
+    
+    wordField.getDocument().addDocumentListener(new DocumentListener() {
+      public void insertUpdate(DocumentEvent e) {
+        updateResult();
+      }
+      
+      public void removeUpdate(DocumentEvent e) {
+        updateResult();
+      }
+      
+      public void changedUpdate(DocumentEvent e) {
+        updateResult();
+      }
+    });
+    
+    ActionListener okListener = new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        word = wordField.getText();
+        dispose();
+      }
+    };
+    wordField.addActionListener(okListener);
+    
+    //BUTTONS
+    JButton okButton = new JButton("OK");
+    okButton.addActionListener(okListener);
+    JButton cancelButton = new JButton("Cancel");
+    cancelButton.addActionListener(new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        dispose();
+      }
+    });
+    
+    JPanel buttons = new JPanel();
+    buttons.add(okButton);
+    buttons.add(cancelButton);
+    
+    JPanel content = new JPanel(new BorderLayout(0, 8));
+    content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+    content.add(new JLabel("Enter the word the automat should test for acceptance"), BorderLayout.NORTH);
+    content.add(wordField, BorderLayout.CENTER);
+    
+    JPanel bottom = new JPanel(new BorderLayout());
+    bottom.add(resultLabel, BorderLayout.NORTH);
+    bottom.add(buttons, BorderLayout.SOUTH);
+    content.add(bottom, BorderLayout.SOUTH);
+    
+    add(content);
+    updateResult();
+    pack();
+    setResizable(false);
+    setLocationRelativeTo(Editor.getEditor());
+    setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+    setVisible(true);
+  }
+  
+  /** Tests the content of the text field, only the changed end of the word is read again. */
+  private void updateResult() {
+    boolean accepted = wordTest.setWord(wordField.getText());
+    
+    if (accepted) {
+      resultLabel.setText("Word accepted");
+      resultLabel.setForeground(Config.HIGHLIGHTED_COLOR_WORD_ACCEPTED);
+    } else if (wordTest.isDead()) {
+      resultLabel.setText("Word denied, no State reads it");
+      resultLabel.setForeground(Config.HIGHLIGHTED_COLOR_WORD_DENIED);
+    } else {
+      resultLabel.setText("Word denied");
+      resultLabel.setForeground(Config.HIGHLIGHTED_COLOR_WORD_DENIED);
+    }
+  }
+  
+  // Getters
+  /** Returns the entered word, null if the user aborted the dialog. */
+  public String getWord() {
+    return this.word;
+  }
+}
@@ -156,13 +156,13 @@ public class XMLFileParser {
     
     // Distinguish the states type
     if (type.equals(stateType))
-      automat.getStates().add(new State(stateIndex, x, y));
+      automat.addState(new State(stateIndex, x, y), false);
     else if (type.equals(startStateType))
-      automat.getStates().add(new StartState(stateIndex, x, y));
+      automat.addState(new StartState(stateIndex, x, y), false);
     else if (type.equals(endStateType))
-      automat.getStates().add(new EndState(stateIndex, x, y));
+      automat.addState(new EndState(stateIndex, x, y), false);
     else if (type.equals(startEndStateType))
-      automat.getStates().add(new StartEndState(stateIndex, x, y));
+      automat.addState(new StartEndState(stateIndex, x, y), false);
     else
       throw new Exception();
   }
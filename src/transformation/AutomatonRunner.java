@@ -0,0 +1,288 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.BitSet;
+
+import editor.Automat;
+import editor.Symbol;
+
+/** Runs the automat over a stream of symbols of any length, fed in pieces as they arrive. Uses the
+ * compiled form of a Language: the transfer-function table of a DEA, the bit-vectors of a
+ * BitParallelNEA, or sets of states with their Epsilon-closures for large NEAs. All working
+ * memory is allocated by the constructor, feeding symbols doesn't allocate anything. One runner
+ * per stream, a runner isn't thread-safe, but any number of runners can share one Language. */
+public class AutomatonRunner {
+  /** Chars read from a Reader at once. */
+  private static final int READ_BUFFER_CHARS = 4096;
+  
+  private final CompiledAutomat compiledAutomat;
+  private final DEATransitionTable deaTable;
+  private final BitParallelNEA bitParallelNEA;
+  /** Large NEAs only, null if the automat has no Epsilon-Transitions. */
+  private final EpsilonClosure epsilonClosure;
+  /** States from which an end-state can be reached, the others can't accept any continuation. */
+  private final BitSet liveStates;
+  private final long[] liveStatesMask;
+  /** BitParallelNEAs with up to 64 states. */
+  private final long finalStatesMask;
+  
+  // The current states, one of them is used depending on the compiled form
+  /** DEAs: the current dense state, -1 if a symbol couldn't be read. */
+  private int state;
+  /** BitParallelNEAs with up to 64 states. */
+  private long stateMask;
+  /** BitParallelNEAs with more states, states[0 to words - 1], nextStates is working memory. */
+  private long[] states;
+  private long[] nextStates;
+  /** Large NEAs, reachedStates is working memory. */
+  private BitSet stateSet;
+  private BitSet reachedStates;
+  
+  private boolean dead;
+  private long position;
+  private final char[] readBuffer = new char[READ_BUFFER_CHARS];
+  
+  /** Creates a runner on the compiled automat of the language, reset to the start-state. */
+  public AutomatonRunner(Language language) {
+    this.compiledAutomat = language.getCompiledAutomat();
+    this.deaTable = language.getDEATransitionTable();
+    this.bitParallelNEA = deaTable == null ? language.getBitParallelNEA() : null;
+    this.epsilonClosure = language.getEpsilonClosure();
+    
+    int stateCount = compiledAutomat.getStateCount();
+    liveStates = liveStates(compiledAutomat);
+    
+    if (bitParallelNEA != null) {
+      liveStatesMask = new long[bitParallelNEA.getWords()];
+      for (int live = liveStates.nextSetBit(0); live >= 0; live = liveStates.nextSetBit(live + 1)) {
+        liveStatesMask[live >>> 6] |= 1L << live;
+      }
+      states = new long[bitParallelNEA.getWords()];
+      nextStates = new long[bitParallelNEA.getWords()];
+    } else
+      liveStatesMask = null;
+    
+    BitSet finalStates = compiledAutomat.getFinalStates();
+    finalStatesMask = finalStates.isEmpty() ? 0L : finalStates.toLongArray()[0];
+    
+    if (deaTable == null && bitParallelNEA == null) {
+      stateSet = new BitSet(stateCount);
+      reachedStates = new BitSet(stateCount);
+    }
+    
+    reset();
+  }
+  
+  /** Like AutomatonRunner(Language), compiles the automat for this runner only. */
+  public AutomatonRunner(Automat automat) {
+    this(new Language(automat));
+  }
+  
+  /** Goes back to the start-state, as if nothing was fed. */
+  public void reset() {
+    int startState = compiledAutomat.getStartState();
+    position = 0;
+    
+    if (deaTable != null) {
+      state = startState;
+    } else if (bitParallelNEA != null) {
+      bitParallelNEA.copyStartStates(states, 0);
+      stateMask = states[0];
+    } else {
+      stateSet.clear();
+      if (startState != -1) {
+        reachedStates.clear();
+        reachedStates.set(startState);
+        close(epsilonClosure, reachedStates, stateSet);
+      }
+    }
+    
+    dead = computeDead();
+  }
+  
+  /** Reads one symbol. */
+  public void feed(char symbol) {
+    position++;
+    if (dead)
+      return;
+    
+    if (deaTable != null) {
+      state = deaTable.next(state, symbol);
+    } else if (bitParallelNEA != null && states.length == 1) {
+      stateMask = bitParallelNEA.stepSingleWord(stateMask, symbol);
+    } else if (bitParallelNEA != null) {
+      bitParallelNEA.step(states, 0, symbol, nextStates, 0);
+      long[] swap = states;
+      states = nextStates;
+      nextStates = swap;
+    } else {
+      step(compiledAutomat, epsilonClosure, stateSet, symbol, reachedStates);
+    }
+    
+    dead = computeDead();
+  }
+  
+  /** Reads the symbols from index from to to - 1 of the sequence. */
+  public void feed(CharSequence symbols, int from, int to) {
+    for (int i = from; i < to; i++) {
+      feed(symbols.charAt(i));
+    }
+  }
+  
+  /** Reads the remaining symbols of the buffer, its position is at its limit afterwards. */
+  public void feed(CharBuffer symbols) {
+    if (symbols.hasArray()) {
+      char[] array = symbols.array();
+      int from = symbols.arrayOffset() + symbols.position();
+      int to = symbols.arrayOffset() + symbols.limit();
+      
+      for (int i = from; i < to; i++) {
+        feed(array[i]);
+      }
+    } else {
+      while (symbols.hasRemaining()) {
+        feed(symbols.get());
+      }
+    }
+    
+    symbols.position(symbols.limit());
+  }
+  
+  /** Reads all symbols of the reader until its end, the reader isn't closed. */
+  public void feed(Reader symbols) throws IOException {
+    int read;
+    while ((read = symbols.read(readBuffer, 0, readBuffer.length)) != -1) {
+      for (int i = 0; i < read; i++) {
+        feed(readBuffer[i]);
+      }
+    }
+  }
+  
+  /** True if the symbols fed since the last reset form an accepted word. */
+  public boolean isAccepting() {
+    if (dead)
+      return false;
+    
+    if (deaTable != null)
+      return compiledAutomat.isFinal(state);
+    
+    if (bitParallelNEA != null && states.length == 1)
+      return (stateMask & finalStatesMask) != 0;
+    
+    if (bitParallelNEA != null)
+      return bitParallelNEA.intersectsFinalStates(states, 0);
+    
+    return containsFinalState(compiledAutomat, stateSet);
+  }
+  
+  /** True if no continuation of the symbols fed since the last reset is accepted, further symbols
+   * are skipped until the next reset. */
+  public boolean isDead() {
+    return dead;
+  }
+  
+  /** The number of symbols fed since the last reset. */
+  public long getPosition() {
+    return position;
+  }
+  
+  private boolean computeDead() {
+    if (deaTable != null)
+      return state == -1 || !liveStates.get(state);
+    
+    if (bitParallelNEA != null && states.length == 1)
+      return (stateMask & liveStatesMask[0]) == 0;
+    
+    if (bitParallelNEA != null) {
+      for (int i = 0; i < states.length; i++) {
+        if ((states[i] & liveStatesMask[i]) != 0)
+          return false;
+      }
+      
+      return true;
+    }
+    
+    return !stateSet.intersects(liveStates);
+  }
+  
+  /** Reads one symbol on the set of states of a large NEA, shared with Language.accepts(): the
+   * stateSet is replaced by the closed set of the reached states, reachedStates is working memory. */
+  static void step(CompiledAutomat compiledAutomat, EpsilonClosure epsilonClosure, BitSet stateSet,
+      char symbol, BitSet reachedStates) {
+    reachedStates.clear();
+    compiledAutomat.step(stateSet, Symbol.toMask(symbol), reachedStates);
+    close(epsilonClosure, reachedStates, stateSet);
+  }
+  
+  /** Sets closed to the states and their Epsilon-closures, pass null as epsilonClosure for a NEA. */
+  static void close(EpsilonClosure epsilonClosure, BitSet states, BitSet closed) {
+    closed.clear();
+    closed.or(states);
+    
+    if (epsilonClosure != null) {
+      for (int reached = states.nextSetBit(0); reached >= 0; reached = states.nextSetBit(reached + 1)) {
+        closed.or(epsilonClosure.getClosure(reached));
+      }
+    }
+  }
+  
+  /** True if one of the states of the set is an end-state. */
+  static boolean containsFinalState(CompiledAutomat compiledAutomat, BitSet stateSet) {
+    for (int state = stateSet.nextSetBit(0); state >= 0; state = stateSet.nextSetBit(state + 1)) {
+      if (compiledAutomat.isFinal(state))
+        return true;
+    }
+    
+    return false;
+  }
+  
+  /** The states from which an end-state is reachable over any transitions, found backwards from the
+   * end-states. */
+  private static BitSet liveStates(CompiledAutomat compiledAutomat) {
+    int stateCount = compiledAutomat.getStateCount();
+    
+    // Reversed edges in compressed-sparse-row form
+    int[] reversedOffsets = new int[stateCount + 1];
+    for (int edge = 0; edge < compiledAutomat.getEdgeCount(); edge++) {
+      reversedOffsets[compiledAutomat.edgeTarget(edge) + 1]++;
+    }
+    for (int i = 1; i <= stateCount; i++) {
+      reversedOffsets[i] += reversedOffsets[i - 1];
+    }
+    
+    int[] sources = new int[compiledAutomat.getEdgeCount()];
+    int[] fill = reversedOffsets.clone();
+    for (int source = 0; source < stateCount; source++) {
+      for (int edge = compiledAutomat.edgeStart(source); edge < compiledAutomat.edgeEnd(source); edge++) {
+        sources[fill[compiledAutomat.edgeTarget(edge)]++] = source;
+      }
+    }
+    
+    BitSet live = compiledAutomat.getFinalStates();
+    int[] stack = new int[stateCount];
+    int stackSize = 0;
+    for (int state = live.nextSetBit(0); state >= 0; state = live.nextSetBit(state + 1)) {
+      stack[stackSize++] = state;
+    }
+    
+    while (stackSize > 0) {
+      int state = stack[--stackSize];
+      
+      for (int i = reversedOffsets[state]; i < reversedOffsets[state + 1]; i++) {
+        if (!live.get(sources[i])) {
+          live.set(sources[i]);
+          stack[stackSize++] = sources[i];
+        }
+      }
+    }
+    
+    return live;
+  }
+}
@@ -0,0 +1,290 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import editor.Automat;
+import editor.Symbol;
+
+/** Word tests on a NEA or Epsilon-automat with the set of current states as a bit-vector: one long
+ * for up to 64 states, words = ceil(states / 64) longs else. For every symbol and state the set of
+ * states reached by reading the symbol, Epsilon-closure included, is precomputed, so a symbol of a
+ * word costs one OR per current state. Same results as the WordSearch, used by Language for
+ * automata of up to MAX_STATES states. Immutable, can be shared by any number of threads. */
+public class BitParallelNEA {
+  /** The tables need states * states / 64 longs per symbol, above this the WordSearch is used. */
+  public static final int MAX_STATES = 512;
+  
+  private final CompiledAutomat compiledAutomat;
+  private final int stateCount;
+  /** longs per set of states. */
+  private final int words;
+  /** bit of the symbol-mask -> column, -1 for symbols not in the alphabet. */
+  private final int[] columns;
+  /** successors[(column * stateCount + state) * words + word]: the states reached by reading the
+   * columns symbol from the state, Epsilon-closure included. */
+  private final long[] successors;
+  /** closures[state * words + word]: the Epsilon-closure of the state, including the state. */
+  private final long[] closures;
+  private final long[] finalStates;
+  
+  public BitParallelNEA(CompiledAutomat compiledAutomat) {
+    this.compiledAutomat = compiledAutomat;
+    this.stateCount = compiledAutomat.getStateCount();
+    this.words = Math.max(1, (stateCount + 63) / 64);
+    
+    // Epsilon is a column as well: the WordSearch reads the character of Epsilon in a word
+    // over Epsilon-Transitions
+    columns = new int[Symbol.SYMBOL_MASK_BITS];
+    int alphabetSize = 0;
+    for (int bit = 0; bit < Symbol.SYMBOL_MASK_BITS; bit++) {
+      columns[bit] = (compiledAutomat.getAlphabetMask() & (1L << bit)) != 0 ? alphabetSize++ : -1;
+    }
+    
+    closures = new long[stateCount * words];
+    EpsilonClosure epsilonClosure = compiledAutomat.isNEA() ? null : new EpsilonClosure(compiledAutomat);
+    for (int state = 0; state < stateCount; state++) {
+      if (epsilonClosure == null) {
+        closures[state * words + (state >>> 6)] |= 1L << state;
+        continue;
+      }
+      
+      BitSet closure = epsilonClosure.getClosure(state);
+      for (int reached = closure.nextSetBit(0); reached >= 0; reached = closure.nextSetBit(reached + 1)) {
+        closures[state * words + (reached >>> 6)] |= 1L << reached;
+      }
+    }
+    
+    successors = new long[alphabetSize * stateCount * words];
+    for (int state = 0; state < stateCount; state++) {
+      for (int edge = compiledAutomat.edgeStart(state); edge < compiledAutomat.edgeEnd(state); edge++) {
+        int target = compiledAutomat.edgeTarget(edge);
+        
+        for (long bits = compiledAutomat.edgeSymbolMask(edge); bits != 0; bits &= bits - 1) {
+          int row = (columns[Long.numberOfTrailingZeros(bits)] * stateCount + state) * words;
+          for (int word = 0; word < words; word++) {
+            successors[row + word] |= closures[target * words + word];
+          }
+        }
+      }
+    }
+    
+    finalStates = new long[words];
+    for (int state = 0; state < stateCount; state++) {
+      if (compiledAutomat.isFinal(state))
+        finalStates[state >>> 6] |= 1L << state;
+    }
+  }
+  
+  /** Returns whether the word is accepted, without keeping any path. Returns false if the automat
+   * has no start-state. */
+  public boolean accepts(CharSequence word) {
+    int startState = compiledAutomat.getStartState();
+    if (startState == -1)
+      return false;
+    
+    if (words == 1)
+      return acceptsSingleWord(word, closures[startState]);
+    
+    long[] current = Arrays.copyOfRange(closures, startState * words, (startState + 1) * words);
+    long[] next = new long[words];
+    for (int i = 0; i < word.length(); i++) {
+      if (!step(current, 0, word.charAt(i), next, 0))
+        return false;
+      
+      long[] swap = current;
+      current = next;
+      next = swap;
+    }
+    
+    return intersectsFinalStates(current, 0);
+  }
+  
+  /** accepts() for up to 64 states, the set of current states is one long. */
+  private boolean acceptsSingleWord(CharSequence word, long current) {
+    for (int i = 0; i < word.length() && current != 0; i++) {
+      current = stepSingleWord(current, word.charAt(i));
+    }
+    
+    return (current & finalStates[0]) != 0;
+  }
+  
+  /** Reads the symbol from the set of states for up to 64 states. Returns the reached set, 0 if
+   * no state is reached. */
+  long stepSingleWord(long current, char symbol) {
+    long symbolMask = Symbol.toMask(symbol);
+    if (symbolMask == 0 || columns[Long.numberOfTrailingZeros(symbolMask)] == -1)
+      return 0L;
+    
+    int row = columns[Long.numberOfTrailingZeros(symbolMask)] * stateCount;
+    long next = 0L;
+    for (long bits = current; bits != 0; bits &= bits - 1) {
+      next |= successors[row + Long.numberOfTrailingZeros(bits)];
+    }
+    
+    return next;
+  }
+  
+  /** Like WordSearch.search(): stores a path that accepts the word, or the longest path the word
+   * could travel, in the passed ArrayList. The sets of states after every symbol are kept, the
+   * path is rebuilt backwards through them.
+   * @param automat The automat this NEA was compiled from, to look up the traveled transitions. */
+  public boolean search(String word, Automat automat, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    int startState = compiledAutomat.getStartState();
+    if (startState == -1)
+      return false;
+    
+    // layers[layer * words + word]: the states reached by reading the first layer symbols
+    long[] layers = new long[(word.length() + 1) * words];
+    System.arraycopy(closures, startState * words, layers, 0, words);
+    
+    int layer = 0;
+    while (layer < word.length() && step(layers, layer * words, word.charAt(layer), layers, (layer + 1) * words)) {
+      layer++;
+    }
+    
+    // Accepted if the whole word was read and an end-state was reached. Else the path ends in the
+    // smallest state reached by the longest readable prefix
+    boolean wordAccepted = layer == word.length() && intersectsFinalStates(layers, layer * words);
+    int endState = -1;
+    for (int i = 0; i < words && endState == -1; i++) {
+      long bits = layers[layer * words + i] & (wordAccepted ? finalStates[i] : -1L);
+      if (bits != 0)
+        endState = i * 64 + Long.numberOfTrailingZeros(bits);
+    }
+    
+    rebuildPath(word, layers, layer, endState, automat, usedTransitionsSymbols);
+    
+    return wordAccepted;
+  }
+  
+  /** Reads the symbol from the set of states at current[from] into next[to]. Returns false if no
+   * state is reached. */
+  boolean step(long[] current, int from, char symbol, long[] next, int to) {
+    Arrays.fill(next, to, to + words, 0L);
+    
+    long symbolMask = Symbol.toMask(symbol);
+    if (symbolMask == 0 || columns[Long.numberOfTrailingZeros(symbolMask)] == -1)
+      return false;
+    
+    int row = columns[Long.numberOfTrailingZeros(symbolMask)] * stateCount;
+    boolean reached = false;
+    for (int i = 0; i < words; i++) {
+      for (long bits = current[from + i]; bits != 0; bits &= bits - 1) {
+        int successorsStart = (row + i * 64 + Long.numberOfTrailingZeros(bits)) * words;
+        
+        for (int j = 0; j < words; j++) {
+          next[to + j] |= successors[successorsStart + j];
+          reached |= successors[successorsStart + j] != 0;
+        }
+      }
+    }
+    
+    return reached;
+  }
+  
+  boolean intersectsFinalStates(long[] states, int from) {
+    for (int i = 0; i < words; i++) {
+      if ((states[from + i] & finalStates[i]) != 0)
+        return true;
+    }
+    
+    return false;
+  }
+  
+  private boolean contains(long[] states, int from, int state) {
+    return (states[from + (state >>> 6)] & (1L << state)) != 0;
+  }
+  
+  /** Walks back from the end-state through the layers: a state of layer i is reached from a state
+   * of layer i - 1 by reading a symbol to some state whose Epsilon-closure contains it. Adds the
+   * traveled transitions in reading order to the passed ArrayList. */
+  private void rebuildPath(String word, long[] layers, int layer, int state, Automat automat,
+      ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    ArrayList<ReadSymbol> reversedPath = new ArrayList<ReadSymbol>();
+    int[] epsilonParents = new int[stateCount];
+    
+    for (; layer > 0; layer--) {
+      long symbolMask = Symbol.toMask(word.charAt(layer - 1));
+      int source = -1;
+      int target = -1;
+      
+      for (int candidate = 0; candidate < stateCount && source == -1; candidate++) {
+        if (!contains(layers, (layer - 1) * words, candidate))
+          continue;
+        
+        for (int edge = compiledAutomat.edgeStart(candidate); edge < compiledAutomat.edgeEnd(candidate); edge++) {
+          if ((compiledAutomat.edgeSymbolMask(edge) & symbolMask) != 0 &&
+              contains(closures, compiledAutomat.edgeTarget(edge) * words, state)) {
+            source = candidate;
+            target = compiledAutomat.edgeTarget(edge);
+            break;
+          }
+        }
+      }
+      
+      addEpsilonPath(target, state, epsilonParents, automat, reversedPath);
+      reversedPath.add(Language.readSymbol(word.charAt(layer - 1), source, target, compiledAutomat, automat));
+      state = source;
+    }
+    
+    addEpsilonPath(compiledAutomat.getStartState(), state, epsilonParents, automat, reversedPath);
+    
+    Language.addPath(reversedPath, usedTransitionsSymbols);
+  }
+  
+  /** Adds a path of Epsilon-Transitions from the state to the target, which is in the states
+   * Epsilon-closure, to the reversed path. Breadth-first search, so the path is a shortest one. */
+  private void addEpsilonPath(int state, int target, int[] epsilonParents, Automat automat,
+      ArrayList<ReadSymbol> reversedPath) {
+    if (state == target)
+      return;
+    
+    Arrays.fill(epsilonParents, -1);
+    epsilonParents[state] = state;
+    int[] queue = new int[stateCount];
+    int queueStart = 0;
+    int queueEnd = 0;
+    queue[queueEnd++] = state;
+    
+    while (epsilonParents[target] == -1) {
+      int reached = queue[queueStart++];
+      
+      for (int edge = compiledAutomat.edgeStart(reached); edge < compiledAutomat.edgeEnd(reached); edge++) {
+        int next = compiledAutomat.edgeTarget(edge);
+        
+        if ((compiledAutomat.edgeSymbolMask(edge) & Symbol.EPSILON_MASK) != 0 && epsilonParents[next] == -1) {
+          epsilonParents[next] = reached;
+          queue[queueEnd++] = next;
+        }
+      }
+    }
+    
+    for (int reached = target; reached != state; reached = epsilonParents[reached]) {
+      reversedPath.add(Language.readSymbol('\u03B5', epsilonParents[reached], reached, compiledAutomat, automat));
+    }
+  }
+  
+  /** Copies the Epsilon-closure of the start-state into states[to]. */
+  void copyStartStates(long[] states, int to) {
+    Arrays.fill(states, to, to + words, 0L);
+    if (compiledAutomat.getStartState() != -1)
+      System.arraycopy(closures, compiledAutomat.getStartState() * words, states, to, words);
+  }
+  
+  // Getters
+  public int getStateCount() {
+    return stateCount;
+  }
+  
+  /** longs per set of states. */
+  int getWords() {
+    return words;
+  }
+}
@@ -0,0 +1,39 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+
+/** The signature of a state in a refinement round of the Moore-minimization: its own class followed
+ * by the classes of its successors, one per symbol of the alphabet. States with equal signatures stay
+ * in the same class. The hash is computed once. */
+public class ClassSignature {
+  private final int[] classes;
+  private final int hash;
+  
+  /** @param classes The array is not copied. */
+  public ClassSignature(int[] classes) {
+    this.classes = classes;
+    this.hash = Arrays.hashCode(classes);
+  }
+  
+  @Override
+  public boolean equals(Object object) {
+    if (this == object)
+      return true;
+    
+    if (!(object instanceof ClassSignature))
+      return false;
+    
+    ClassSignature signature = (ClassSignature) object;
+    return hash == signature.hash && Arrays.equals(classes, signature.classes);
+  }
+  
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
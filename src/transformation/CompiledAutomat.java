@@ -0,0 +1,225 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import editor.Automat;
+import editor.State;
+import editor.Symbol;
+import editor.Transition;
+
+/** Immutable snapshot of an automat for the analysis algorithms, without any painting or selection
+ * state. The states are renumbered densely from 0 to getStateCount() - 1 in the order of the
+ * automats states-list. The transitions are stored in compressed-sparse-row form: the outgoing
+ * edges of a state s are the indices edgeStart(s) to edgeEnd(s) - 1 of the target- and
+ * symbolMask-arrays. Symbols are stored as symbol-masks, see Symbol.toMask(). */
+public class CompiledAutomat {
+  /** Dense state -> stateIndex of the editor state. */
+  private final int[] stateIndices;
+  /** stateIndex of the editor state -> dense state, -1 for unused stateIndices. */
+  private final int[] denseStates;
+  
+  // CSR arrays of the transitions
+  private final int[] offsets;
+  private final int[] targets;
+  private final long[] symbolMasks;
+  
+  private final BitSet finalStates;
+  /** The dense start state, -1 if the automat has none. */
+  private final int startState;
+  private final long alphabetMask;
+  
+  private CompiledAutomat(int[] stateIndices, int[] denseStates, int[] offsets, int[] targets,
+      long[] symbolMasks, BitSet finalStates, int startState, long alphabetMask) {
+    this.stateIndices = stateIndices;
+    this.denseStates = denseStates;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.symbolMasks = symbolMasks;
+    this.finalStates = finalStates;
+    this.startState = startState;
+    this.alphabetMask = alphabetMask;
+  }
+  
+  /** Compiles the passed automat into a snapshot. O(states + transitions). Later changes of the
+   * automat are not reflected by the snapshot. */
+  public static CompiledAutomat compile(Automat automat) {
+    ArrayList<State> states = automat.getStates();
+    int stateCount = states.size();
+    
+    // Dense numbering of the states
+    int[] stateIndices = new int[stateCount];
+    int maxStateIndex = -1;
+    for (int i = 0; i < stateCount; i++) {
+      stateIndices[i] = states.get(i).getStateIndex();
+      maxStateIndex = Math.max(maxStateIndex, stateIndices[i]);
+    }
+    
+    int[] denseStates = new int[maxStateIndex + 1];
+    Arrays.fill(denseStates, -1);
+    for (int i = 0; i < stateCount; i++) {
+      denseStates[stateIndices[i]] = i;
+    }
+    
+    // Offsets and final states
+    int[] offsets = new int[stateCount + 1];
+    BitSet finalStates = new BitSet(stateCount);
+    ArrayList<ArrayList<Transition>> outgoingTransitions = new ArrayList<ArrayList<Transition>>(stateCount);
+    for (int i = 0; i < stateCount; i++) {
+      ArrayList<Transition> stateTransitions = Transition.getTransitionsByStartState(states.get(i), automat);
+      outgoingTransitions.add(stateTransitions);
+      offsets[i + 1] = offsets[i] + stateTransitions.size();
+      
+      if (states.get(i).isEndState())
+        finalStates.set(i);
+    }
+    
+    // Targets and symbols, in the order of the automats adjacency-lists
+    int[] targets = new int[offsets[stateCount]];
+    long[] symbolMasks = new long[offsets[stateCount]];
+    long alphabetMask = 0L;
+    for (int i = 0; i < stateCount; i++) {
+      ArrayList<Transition> stateTransitions = outgoingTransitions.get(i);
+      
+      for (int j = 0; j < stateTransitions.size(); j++) {
+        int edge = offsets[i] + j;
+        targets[edge] = denseStates[stateTransitions.get(j).getTransitionEnd().getStateIndex()];
+        symbolMasks[edge] = stateTransitions.get(j).getSymbolMask();
+        alphabetMask |= symbolMasks[edge];
+      }
+    }
+    
+    int startState = 0 <= maxStateIndex ? denseStates[0] : -1;
+    
+    return new CompiledAutomat(stateIndices, denseStates, offsets, targets, symbolMasks, finalStates,
+        startState, alphabetMask);
+  }
+  
+  /** A NEA has no Epsilon-Transitions. */
+  public boolean isNEA() {
+    return (alphabetMask & Symbol.EPSILON_MASK) == 0;
+  }
+  
+  /** A DEA is a NEA where every state reads every symbol of the alphabet on exactly one transition. */
+  public boolean isDEA() {
+    if (!isNEA())
+      return false;
+    
+    for (int state = 0; state < getStateCount(); state++) {
+      long outgoingSymbolsMask = 0L;
+      
+      for (int edge = offsets[state]; edge < offsets[state + 1]; edge++) {
+        if ((outgoingSymbolsMask & symbolMasks[edge]) != 0)
+          return false;
+        
+        outgoingSymbolsMask |= symbolMasks[edge];
+      }
+      
+      if (outgoingSymbolsMask != alphabetMask)
+        return false;
+    }
+    
+    return true;
+  }
+  
+  /** Returns all states reachable from the passed dense state by moving along transitions in their
+   * direction, including the state itself. Iterative, doesn't touch any editor State. */
+  public BitSet reachableStates(int fromState) {
+    BitSet reached = new BitSet(getStateCount());
+    if (fromState < 0)
+      return reached;
+    
+    int[] stack = new int[getStateCount()];
+    int stackSize = 0;
+    stack[stackSize++] = fromState;
+    reached.set(fromState);
+    
+    while (stackSize > 0) {
+      int state = stack[--stackSize];
+      
+      for (int edge = offsets[state]; edge < offsets[state + 1]; edge++) {
+        if (!reached.get(targets[edge])) {
+          reached.set(targets[edge]);
+          stack[stackSize++] = targets[edge];
+        }
+      }
+    }
+    
+    return reached;
+  }
+  
+  /** Adds all states reached by reading the symbol-mask from any state of fromStates into the
+   * passed reachedStates. Doesn't follow Epsilon-Transitions on its own. */
+  public void step(BitSet fromStates, long symbolMask, BitSet reachedStates) {
+    for (int state = fromStates.nextSetBit(0); state >= 0; state = fromStates.nextSetBit(state + 1)) {
+      for (int edge = offsets[state]; edge < offsets[state + 1]; edge++) {
+        if ((symbolMasks[edge] & symbolMask) != 0)
+          reachedStates.set(targets[edge]);
+      }
+    }
+  }
+  
+  // Getters
+  public int getStateCount() {
+    return stateIndices.length;
+  }
+  
+  /** Returns the dense start state, -1 if the automat has no start state. */
+  public int getStartState() {
+    return startState;
+  }
+  
+  public boolean isFinal(int state) {
+    return finalStates.get(state);
+  }
+  
+  /** Returns a copy of the set of dense final states. */
+  public BitSet getFinalStates() {
+    return (BitSet) finalStates.clone();
+  }
+  
+  public long getAlphabetMask() {
+    return alphabetMask;
+  }
+  
+  /** Returns the stateIndex of the editor state the dense state was compiled from. */
+  public int getStateIndex(int state) {
+    return stateIndices[state];
+  }
+  
+  /** Returns the dense state of the passed editor stateIndex, -1 if the automat had no such state. */
+  public int getState(int stateIndex) {
+    if (stateIndex < 0 || stateIndex >= denseStates.length)
+      return -1;
+    
+    return denseStates[stateIndex];
+  }
+  
+  /** First outgoing edge of the state. */
+  public int edgeStart(int state) {
+    return offsets[state];
+  }
+  
+  /** One past the last outgoing edge of the state. */
+  public int edgeEnd(int state) {
+    return offsets[state + 1];
+  }
+  
+  public int getEdgeCount() {
+    return targets.length;
+  }
+  
+  public int edgeTarget(int edge) {
+    return targets[edge];
+  }
+  
+  public long edgeSymbolMask(int edge) {
+    return symbolMasks[edge];
+  }
+}
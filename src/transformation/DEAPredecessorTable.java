@@ -0,0 +1,56 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** The inverse transfer-function of a DEATransitionTable: for every state and symbol all states
+ * that reach the state by reading the symbol. Stored in compressed-sparse-row form, the predecessors
+ * of (state, column) are predecessor(i) for i from predecessorStart() to predecessorEnd() - 1. */
+public class DEAPredecessorTable {
+  private final int stateCount;
+  /** Indexed by column * (stateCount + 1) + state. */
+  private final int[] offsets;
+  private final int[] predecessors;
+  
+  /** Builds the table by counting sort over (column, reached state). The DEATransitionTable must be
+   * complete (a DEA). */
+  public DEAPredecessorTable(DEATransitionTable deaTable) {
+    stateCount = deaTable.getStateCount();
+    int alphabetSize = deaTable.getAlphabetSize();
+    
+    offsets = new int[alphabetSize * (stateCount + 1) + 1];
+    predecessors = new int[stateCount * alphabetSize];
+    
+    for (int state = 0; state < stateCount; state++) {
+      for (int column = 0; column < alphabetSize; column++) {
+        offsets[column * (stateCount + 1) + deaTable.next(state, column) + 1]++;
+      }
+    }
+    
+    for (int i = 1; i < offsets.length; i++) {
+      offsets[i] += offsets[i - 1];
+    }
+    
+    int[] fill = new int[offsets.length];
+    System.arraycopy(offsets, 0, fill, 0, fill.length);
+    for (int state = 0; state < stateCount; state++) {
+      for (int column = 0; column < alphabetSize; column++) {
+        predecessors[fill[column * (stateCount + 1) + deaTable.next(state, column)]++] = state;
+      }
+    }
+  }
+  
+  public int predecessorStart(int state, int column) {
+    return offsets[column * (stateCount + 1) + state];
+  }
+  
+  public int predecessorEnd(int state, int column) {
+    return offsets[column * (stateCount + 1) + state + 1];
+  }
+  
+  public int predecessor(int i) {
+    return predecessors[i];
+  }
+}
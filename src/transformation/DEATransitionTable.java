@@ -0,0 +1,165 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import editor.Symbol;
+
+/** The transfer-function δ of a DEA as a dense table, built once per DEA. Row = dense state of the
+ * CompiledAutomat, column = symbol of the alphabet, ordered digits, letters (the order of Util.getAlphabet()).
+ * δ(q, a) is a single array load. Built from a CompiledAutomat, or from the arrays of a subset
+ * construction without any editor objects. */
+public class DEATransitionTable {
+  /** null if the table wasn't built from a CompiledAutomat. */
+  private final CompiledAutomat compiledDEA;
+  private final int stateCount;
+  private final int startState;
+  private final BitSet finalStates;
+  /** table[state * alphabetSize + column] = reached dense state, -1 if the state has no transition
+   * reading the columns symbol. */
+  private final int[] table;
+  private final int alphabetSize;
+  /** column -> symbol */
+  private final char[] symbols;
+  /** bit of the symbol-mask (see Symbol.toMask()) -> column, -1 for symbols not in the alphabet. */
+  private final int[] columns;
+  
+  /** Builds the table of the passed snapshot, which should be a DEA (see CompiledAutomat.isDEA()). */
+  public DEATransitionTable(CompiledAutomat compiledDEA) {
+    this.compiledDEA = compiledDEA;
+    this.stateCount = compiledDEA.getStateCount();
+    this.startState = compiledDEA.getStartState();
+    this.finalStates = compiledDEA.getFinalStates();
+    
+    // char -> column map over the symbol-mask bits of the alphabet
+    long alphabetMask = compiledDEA.getAlphabetMask() & ~Symbol.EPSILON_MASK;
+    alphabetSize = Long.bitCount(alphabetMask);
+    symbols = new char[alphabetSize];
+    columns = new int[Symbol.SYMBOL_MASK_BITS];
+    
+    int column = 0;
+    for (int bit = 0; bit < Symbol.SYMBOL_MASK_BITS; bit++) {
+      if ((alphabetMask & (1L << bit)) != 0) {
+        symbols[column] = Symbol.fromMaskBit(bit);
+        columns[bit] = column++;
+      } else
+        columns[bit] = -1;
+    }
+    
+    // Fill the rows, one entry per symbol of every edge
+    table = new int[compiledDEA.getStateCount() * alphabetSize];
+    Arrays.fill(table, -1);
+    for (int state = 0; state < compiledDEA.getStateCount(); state++) {
+      for (int edge = compiledDEA.edgeStart(state); edge < compiledDEA.edgeEnd(state); edge++) {
+        long edgeSymbolMask = compiledDEA.edgeSymbolMask(edge) & ~Symbol.EPSILON_MASK;
+        
+        while (edgeSymbolMask != 0) {
+          int bit = Long.numberOfTrailingZeros(edgeSymbolMask);
+          edgeSymbolMask &= edgeSymbolMask - 1;
+          
+          int cell = state * alphabetSize + columns[bit];
+          // Keep the first transition in case of a non-deterministic snapshot
+          if (table[cell] == -1)
+            table[cell] = compiledDEA.edgeTarget(edge);
+        }
+      }
+    }
+  }
+  
+  /** Wraps the table of a subset construction, the start-state is 0.
+   * @param symbols column -> symbol, in the order of the symbol-mask bits.
+   * @param table Indexed by state * symbols.length + column. The arrays are not copied. */
+  DEATransitionTable(int stateCount, char[] symbols, int[] table, BitSet finalStates) {
+    this.compiledDEA = null;
+    this.stateCount = stateCount;
+    this.startState = 0;
+    this.finalStates = finalStates;
+    this.alphabetSize = symbols.length;
+    this.symbols = symbols;
+    this.table = table;
+    
+    columns = new int[Symbol.SYMBOL_MASK_BITS];
+    Arrays.fill(columns, -1);
+    for (int column = 0; column < alphabetSize; column++) {
+      columns[Long.numberOfTrailingZeros(Symbol.toMask(symbols[column]))] = column;
+    }
+  }
+  
+  /** Returns the NEA with all transitions reversed, the end-states are its start-states and the
+   * start-state its only end-state. */
+  public NEATransitionTable reverse() {
+    int[] offsets = new int[stateCount * alphabetSize + 1];
+    int[] targets = new int[table.length];
+    int targetCount = 0;
+    
+    for (int cell = 0; cell < table.length; cell++) {
+      if (table[cell] != -1)
+        targets[targetCount++] = table[cell];
+      
+      offsets[cell + 1] = targetCount;
+    }
+    
+    BitSet startStates = new BitSet(stateCount);
+    if (startState != -1)
+      startStates.set(startState);
+    
+    return new NEATransitionTable(stateCount, symbols, offsets, Arrays.copyOf(targets, targetCount),
+        startStates, finalStates).reverse();
+  }
+  
+  /** Returns the column of the passed symbol, -1 if the symbol isn't part of the alphabet. */
+  public int getColumn(char symbol) {
+    long symbolMask = Symbol.toMask(symbol);
+    if (symbolMask == 0 || symbolMask == Symbol.EPSILON_MASK)
+      return -1;
+    
+    return columns[Long.numberOfTrailingZeros(symbolMask)];
+  }
+  
+  /** δ(state, symbol of the column). Returns the reached dense state, -1 if there is none. */
+  public int next(int state, int column) {
+    return table[state * alphabetSize + column];
+  }
+  
+  /** δ(state, symbol). Returns the reached dense state, -1 if there is none or the symbol
+   * isn't part of the alphabet. */
+  public int next(int state, char symbol) {
+    int column = getColumn(symbol);
+    if (column == -1)
+      return -1;
+    
+    return next(state, column);
+  }
+  
+  // Setters and Getters
+  /** Returns the snapshot the table was built of, null if it was built from a subset construction. */
+  public CompiledAutomat getCompiledDEA() {
+    return this.compiledDEA;
+  }
+  
+  public int getStateCount() {
+    return this.stateCount;
+  }
+  
+  /** Returns the dense start-state, -1 if the DEA has none. */
+  public int getStartState() {
+    return this.startState;
+  }
+  
+  public boolean isFinal(int state) {
+    return this.finalStates.get(state);
+  }
+  
+  public int getAlphabetSize() {
+    return this.alphabetSize;
+  }
+  
+  public char getSymbol(int column) {
+    return this.symbols[column];
+  }
+}
@@ -0,0 +1,152 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import editor.Symbol;
+
+/** The Epsilon-closures of all states of a compiled automat: every state reachable from a state by
+ * Epsilon-Transitions only, including the state itself. Computed once in O(states + transitions)
+ * plus the union of the bitsets: the strongly connected components of the Epsilon-subgraph are
+ * found by Tarjans algorithm, all states of a component share one closure, so Epsilon-cycles are
+ * collapsed. Tarjan finishes a component only after all components it reaches, so a closure is the
+ * union of the components states and the closures of its Epsilon-successors. */
+public class EpsilonClosure {
+  private final CompiledAutomat compiledAutomat;
+  private final BitSet finalStates;
+  /** Dense state -> its component. */
+  private final int[] components;
+  /** Component -> its closure, shared by all states of the component. */
+  private final BitSet[] closures;
+  private int componentCount;
+  
+  public EpsilonClosure(CompiledAutomat compiledAutomat) {
+    this.compiledAutomat = compiledAutomat;
+    this.finalStates = compiledAutomat.getFinalStates();
+    this.components = new int[compiledAutomat.getStateCount()];
+    this.closures = new BitSet[compiledAutomat.getStateCount()];
+    
+    computeComponents();
+  }
+  
+  /** Iterative Tarjan on the Epsilon-Transitions, no recursion even for long Epsilon-chains. */
+  private void computeComponents() {
+    int stateCount = compiledAutomat.getStateCount();
+    int[] indices = new int[stateCount];
+    int[] lowLinks = new int[stateCount];
+    int[] edgeCursors = new int[stateCount];
+    int[] callStack = new int[stateCount];
+    int[] componentStack = new int[stateCount];
+    BitSet onComponentStack = new BitSet(stateCount);
+    Arrays.fill(indices, -1);
+    
+    int index = 0;
+    int componentStackSize = 0;
+    for (int root = 0; root < stateCount; root++) {
+      if (indices[root] != -1)
+        continue;
+      
+      int callStackSize = 0;
+      callStack[callStackSize++] = root;
+      indices[root] = lowLinks[root] = index++;
+      edgeCursors[root] = compiledAutomat.edgeStart(root);
+      componentStack[componentStackSize++] = root;
+      onComponentStack.set(root);
+      
+      while (callStackSize > 0) {
+        int state = callStack[callStackSize - 1];
+        
+        // Continue with the next unvisited Epsilon-successor, if there is one
+        boolean descended = false;
+        while (edgeCursors[state] < compiledAutomat.edgeEnd(state)) {
+          int edge = edgeCursors[state]++;
+          if ((compiledAutomat.edgeSymbolMask(edge) & Symbol.EPSILON_MASK) == 0)
+            continue;
+          
+          int target = compiledAutomat.edgeTarget(edge);
+          if (indices[target] == -1) {
+            callStack[callStackSize++] = target;
+            indices[target] = lowLinks[target] = index++;
+            edgeCursors[target] = compiledAutomat.edgeStart(target);
+            componentStack[componentStackSize++] = target;
+            onComponentStack.set(target);
+            descended = true;
+            break;
+          } else if (onComponentStack.get(target))
+            lowLinks[state] = Math.min(lowLinks[state], indices[target]);
+        }
+        
+        if (descended)
+          continue;
+        
+        // All successors are done
+        callStackSize--;
+        if (lowLinks[state] == indices[state]) {
+          int componentStart = componentStackSize;
+          do {
+            componentStart--;
+            onComponentStack.clear(componentStack[componentStart]);
+            components[componentStack[componentStart]] = componentCount;
+          } while (componentStack[componentStart] != state);
+          
+          closures[componentCount] = componentClosure(componentStack, componentStart, componentStackSize);
+          componentCount++;
+          componentStackSize = componentStart;
+        }
+        
+        if (callStackSize > 0) {
+          int parent = callStack[callStackSize - 1];
+          lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[state]);
+        }
+      }
+    }
+  }
+  
+  /** The members of the component plus the closures of all components reached by one of its
+   * Epsilon-Transitions, which are finished already. */
+  private BitSet componentClosure(int[] componentStack, int from, int to) {
+    BitSet closure = new BitSet(compiledAutomat.getStateCount());
+    int component = components[componentStack[from]];
+    
+    for (int i = from; i < to; i++) {
+      int state = componentStack[i];
+      closure.set(state);
+      
+      for (int edge = compiledAutomat.edgeStart(state); edge < compiledAutomat.edgeEnd(state); edge++) {
+        if ((compiledAutomat.edgeSymbolMask(edge) & Symbol.EPSILON_MASK) == 0)
+          continue;
+        
+        int targetComponent = components[compiledAutomat.edgeTarget(edge)];
+        if (targetComponent != component)
+          closure.or(closures[targetComponent]);
+      }
+    }
+    
+    return closure;
+  }
+  
+  /** Returns true if an end-state is reachable from the state by Epsilon-Transitions only. */
+  public boolean reachesFinalState(int state) {
+    return closures[components[state]].intersects(finalStates);
+  }
+  
+  // Getters
+  /** Returns the dense states of the closure of the dense state. The set is shared with the other
+   * states of its component and must not be modified. */
+  public BitSet getClosure(int state) {
+    return closures[components[state]];
+  }
+  
+  public int getComponentCount() {
+    return componentCount;
+  }
+  
+  public CompiledAutomat getCompiledAutomat() {
+    return compiledAutomat;
+  }
+}
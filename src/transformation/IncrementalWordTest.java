@@ -0,0 +1,190 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.BitSet;
+import java.util.HashMap;
+
+import editor.Symbol;
+
+/** Tests a word while it's typed. Every prefix typed so far is a node of a trie, mapped to the set of
+ * states it reaches, Epsilon-closures included. Appending a symbol is one step from the set of the
+ * current prefix, or a lookup if the prefix was typed before; deleting the last symbol goes back to
+ * the parent node. Either way independent of the length of the word. Not thread-safe, meant for
+ * the event dispatch thread. */
+public class IncrementalWordTest {
+  /** The trie is cut down to the prefixes of the current word once it has this many nodes, or twice
+   * as many as remained after the last cut for very long words. */
+  public static final int MAX_CACHED_PREFIXES = 65536;
+  
+  private final CompiledAutomat compiledAutomat;
+  /** null if the automat has no Epsilon-Transitions. */
+  private final EpsilonClosure epsilonClosure;
+  private final BitSet finalStates;
+  
+  // The trie, node 0 is the empty word
+  private int[] parents;
+  private char[] symbols;
+  private BitSet[] stateSets;
+  private int nodeCount;
+  private int trimNodeCount = MAX_CACHED_PREFIXES;
+  /** (node << 16 | symbol) -> child node. */
+  private final HashMap<Long, Integer> children = new HashMap<Long, Integer>();
+  
+  private int currentNode;
+  private final StringBuilder word = new StringBuilder();
+  
+  /** Tests words on the automat of the passed engine. */
+  public IncrementalWordTest(Language language) {
+    this.compiledAutomat = language.getCompiledAutomat();
+    this.epsilonClosure = compiledAutomat.isNEA() ? null : new EpsilonClosure(compiledAutomat);
+    this.finalStates = compiledAutomat.getFinalStates();
+    
+    parents = new int[64];
+    symbols = new char[64];
+    stateSets = new BitSet[64];
+    
+    BitSet startStates = new BitSet(compiledAutomat.getStateCount());
+    if (compiledAutomat.getStartState() != -1)
+      startStates.set(compiledAutomat.getStartState());
+    
+    addNode(-1, '\0', close(startStates));
+  }
+  
+  /** Appends the symbol to the word. Returns whether the new word is accepted. */
+  public boolean append(char symbol) {
+    if (nodeCount >= trimNodeCount) {
+      trimToCurrentWord();
+      trimNodeCount = Math.max(MAX_CACHED_PREFIXES, 2 * nodeCount);
+    }
+    
+    Long key = childKey(currentNode, symbol);
+    Integer child = children.get(key);
+    if (child == null) {
+      BitSet reachedStates = new BitSet(compiledAutomat.getStateCount());
+      compiledAutomat.step(stateSets[currentNode], Symbol.toMask(symbol), reachedStates);
+      
+      child = addNode(currentNode, symbol, close(reachedStates));
+      children.put(key, child);
+    }
+    
+    currentNode = child;
+    word.append(symbol);
+    
+    return isAccepted();
+  }
+  
+  /** Deletes the last symbol of the word, if there is one. Returns whether the new word is accepted. */
+  public boolean deleteLastSymbol() {
+    if (currentNode != 0) {
+      currentNode = parents[currentNode];
+      word.setLength(word.length() - 1);
+    }
+    
+    return isAccepted();
+  }
+  
+  /** Changes the word to the passed one, e.g. the content of a text field after any edit. Goes back
+   * to the common prefix of the old and new word and appends the rest. Returns whether the new word
+   * is accepted. */
+  public boolean setWord(CharSequence newWord) {
+    int commonLength = 0;
+    while (commonLength < word.length() && commonLength < newWord.length() &&
+        word.charAt(commonLength) == newWord.charAt(commonLength)) {
+      commonLength++;
+    }
+    
+    while (word.length() > commonLength) {
+      deleteLastSymbol();
+    }
+    
+    for (int i = commonLength; i < newWord.length(); i++) {
+      append(newWord.charAt(i));
+    }
+    
+    return isAccepted();
+  }
+  
+  public boolean isAccepted() {
+    return stateSets[currentNode].intersects(finalStates);
+  }
+  
+  /** True if no state is reached by the word, then no longer word is accepted either. */
+  public boolean isDead() {
+    return stateSets[currentNode].isEmpty();
+  }
+  
+  /** Adds the Epsilon-closures of the states to the set, returns the set. */
+  private BitSet close(BitSet states) {
+    if (epsilonClosure == null)
+      return states;
+    
+    BitSet closedStates = new BitSet(compiledAutomat.getStateCount());
+    for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+      closedStates.or(epsilonClosure.getClosure(state));
+    }
+    
+    return closedStates;
+  }
+  
+  private int addNode(int parent, char symbol, BitSet stateSet) {
+    if (nodeCount == parents.length) {
+      int capacity = parents.length * 2;
+      int[] grownParents = new int[capacity];
+      char[] grownSymbols = new char[capacity];
+      BitSet[] grownStateSets = new BitSet[capacity];
+      System.arraycopy(parents, 0, grownParents, 0, nodeCount);
+      System.arraycopy(symbols, 0, grownSymbols, 0, nodeCount);
+      System.arraycopy(stateSets, 0, grownStateSets, 0, nodeCount);
+      parents = grownParents;
+      symbols = grownSymbols;
+      stateSets = grownStateSets;
+    }
+    
+    parents[nodeCount] = parent;
+    symbols[nodeCount] = symbol;
+    stateSets[nodeCount] = stateSet;
+    
+    return nodeCount++;
+  }
+  
+  /** Drops all nodes except the prefixes of the current word, which keep their state sets. */
+  private void trimToCurrentWord() {
+    int[] path = new int[word.length() + 1];
+    for (int node = currentNode, i = word.length(); node != -1; node = parents[node], i--) {
+      path[i] = node;
+    }
+    
+    BitSet[] pathStateSets = new BitSet[path.length];
+    for (int i = 0; i < path.length; i++) {
+      pathStateSets[i] = stateSets[path[i]];
+    }
+    
+    children.clear();
+    nodeCount = 0;
+    addNode(-1, '\0', pathStateSets[0]);
+    for (int i = 1; i < path.length; i++) {
+      addNode(i - 1, word.charAt(i - 1), pathStateSets[i]);
+      children.put(childKey(i - 1, word.charAt(i - 1)), i);
+    }
+    
+    currentNode = path.length - 1;
+  }
+  
+  private static Long childKey(int node, char symbol) {
+    return ((long) node << 16) | symbol;
+  }
+  
+  // Getters
+  public String getWord() {
+    return word.toString();
+  }
+  
+  /** The number of prefixes whose state sets are cached, the empty word included. */
+  public int getCachedPrefixCount() {
+    return nodeCount;
+  }
+}
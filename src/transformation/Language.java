@@ -6,20 +6,38 @@
 package transformation;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import editor.Automat;
 import editor.Config;
-import editor.EndState;
 import editor.ErrorMessage;
-import editor.StartEndState;
 import editor.State;
 import editor.Transition;
 
-/** Used for computation around the language of the automata in form of a regular Expression. */
+/** Used for computation around the language of the automata in form of a regular Expression.
+ * An instance is an engine for word tests on one automat. It is immutable and can be shared by
+ * any number of threads, every test keeps its working state for itself. */
 public class Language {
-  /** Currently longest list of symbols read. Contains epsilon-transitions as well. */
-  private static ArrayList<ReadSymbol> mostReadSymbols;
-  private static boolean wordAccepted;
+  private final Automat automat;
+  private final CompiledAutomat compiledAutomat;
+  /** The transfer-function table in case the automat is a DEA, null otherwise. */
+  private final DEATransitionTable deaTable;
+  /** The bit-vector engine for NEAs of up to BitParallelNEA.MAX_STATES states, null otherwise. */
+  private final BitParallelNEA bitParallelNEA;
+  /** The closures for the sets of states of larger Epsilon-automats, null otherwise. */
+  private final EpsilonClosure epsilonClosure;
+  
+  /** Compiles a snapshot of the passed automat once for all following word tests. Later changes
+   * of the automat aren't reflected, the automat must not be changed while tests are running. */
+  public Language(Automat automat) {
+    this.automat = automat;
+    this.compiledAutomat = CompiledAutomat.compile(automat);
+    this.deaTable = compiledAutomat.isDEA() ? new DEATransitionTable(compiledAutomat) : null;
+    this.bitParallelNEA = deaTable == null && compiledAutomat.getStateCount() <= BitParallelNEA.MAX_STATES ?
+        new BitParallelNEA(compiledAutomat) : null;
+    this.epsilonClosure = deaTable == null && bitParallelNEA == null && !compiledAutomat.isNEA() ?
+        new EpsilonClosure(compiledAutomat) : null;
+  }
   
   /** Tests whether a word is accepted by the automat or not. Saves the used transitions
    * in the passed ArrayList. In case multiple solutions are possible to accept the word,
@@ -32,153 +50,111 @@ public class Language {
       return false;
     }
     
-    // Reset the longest list and its counter
-    mostReadSymbols = new ArrayList<ReadSymbol>();
-    wordAccepted = false;
+    return new Language(automat).accepts(word, usedTransitionsSymbols);
+  }
+  
+  /** Like wordAccepted(), on this engines automat. Returns false without an error-message if the
+   * automat has no start-state. */
+  public boolean accepts(String word, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    if (compiledAutomat.getStartState() == -1)
+      return false;
     
-    ArrayList<ReadSymbol> readSymbols = new ArrayList<ReadSymbol>();
-    readSymbol(word, startState, automat, readSymbols);
+    // A DEA has only one path to follow, walk it along the transfer-function
+    if (deaTable != null)
+      return acceptsDEA(word, usedTransitionsSymbols);
     
-    // Copy the transitions of the longest traveled transitions list
-    ReadSymbol.copyListInto(mostReadSymbols, usedTransitionsSymbols);
+    // Small and medium NEAs: the set of current states fits into a few longs
+    if (bitParallelNEA != null)
+      return bitParallelNEA.search(word, automat, usedTransitionsSymbols);
     
-    return wordAccepted;
+    return new WordSearch(compiledAutomat, automat).search(word, usedTransitionsSymbols);
   }
   
-  /** Recursive method that reads a symbol from the passed word.
-   * @param state The State from which we search transitions to read the next symbol. */
-  private static void readSymbol(String wordSubstring, State state, Automat automat,
-      ArrayList<ReadSymbol> readSymbols) {
-    if (ReadSymbol.getEffectiveLenght(readSymbols) >= ReadSymbol.getEffectiveLenght(mostReadSymbols) &&
-        !wordAccepted) {
-      mostReadSymbols = ReadSymbol.copyList(readSymbols);
-    }
+  /** Tests whether the word is accepted without storing any path, the fast test for many words,
+   * e.g. of a WordBatch. Returns false if the automat has no start-state. */
+  public boolean accepts(CharSequence word) {
+    if (compiledAutomat.getStartState() == -1)
+      return false;
     
-    if (wordSubstring.length() == 0) {
-      if (state instanceof EndState || state instanceof StartEndState) {
-        wordAccepted = true;
-        return;
+    if (deaTable != null) {
+      int state = compiledAutomat.getStartState();
+      for (int i = 0; i < word.length() && state != -1; i++) {
+        state = deaTable.next(state, word.charAt(i));
       }
+      
+      return state != -1 && compiledAutomat.isFinal(state);
     }
     
-    // Get all reachable states. Includes ArcTransitions
-    ArrayList<Transition> outgoingTransitions = Transition.getTransitionsByStartState(state,
-        automat.getTransitions());
+    if (bitParallelNEA != null)
+      return bitParallelNEA.accepts(word);
     
-    for (int i = 0; i < outgoingTransitions.size(); i++) {
-      Transition transition = outgoingTransitions.get(i);
-      
-      // Iterate over all transition-symbols, only if there are still Symbols to read
-      if (wordSubstring.length() > 0) {
-        for (int j = 0; j < transition.getSymbols().size(); j++) {
-          // Read an actual Symbol? (No Epsilon)
-          if (wordSubstring.charAt(0) == transition.getSymbols().get(j).getSymbol()) {
-            readSymbols.add(new ReadSymbol(wordSubstring.charAt(0), transition));
-            readSymbol(wordSubstring.substring(1), outgoingTransitions.get(i).getTransitionEnd(),
-                automat, readSymbols);
-            readSymbols.remove(readSymbols.size() - 1);
-          }
-        }
-      }
-      
-      // Try the Epsilon-Transition in case it is one (and not an ArcTransition, Epsilon-Arc is useless)
-      if (transition.isEpsilonTransition() && !transition.isArcTransition()) {
-        // Will the current transition close an cycle with only Epsilon-Transitions? If so,
-        // don't allow this since this leads to a stackOverflow. (algorithm doesn't terminate)
-        if (closesEpsilonCycle(transition, readSymbols))
-          continue;
-        
-        readSymbols.add(new ReadSymbol(new Character('\u03B5'), transition));
-        readSymbol(wordSubstring, outgoingTransitions.get(i).getTransitionEnd(),
-            automat, readSymbols);
-        readSymbols.remove(readSymbols.size() - 1);
-      }
-    }
-  }
-  
-  
-  // ---------- Original version, before the Epsilon-Transition modifications ---------------
-  /*
-  private static void readSymbol(String wordSubstring, State state, Automat automat,
-      ArrayList<ReadSymbol> readSymbols) {
-    if (ReadSymbol.getEffectiveLenght(readSymbols) >= ReadSymbol.getEffectiveLenght(mostReadSymbols) &&
-        !wordAccepted) {
-      mostReadSymbols = ReadSymbol.copyList(readSymbols);
-    }
+    // Large NEAs: the set of current states, no path is stored
+    BitSet stateSet = new BitSet(compiledAutomat.getStateCount());
+    BitSet reachedStates = new BitSet(compiledAutomat.getStateCount());
+    reachedStates.set(compiledAutomat.getStartState());
+    AutomatonRunner.close(epsilonClosure, reachedStates, stateSet);
     
-    if (wordSubstring.length() == 0) {
-      if (state instanceof EndState || state instanceof StartEndState) {
-        wordAccepted = true;
-        return;
-      }
+    for (int i = 0; i < word.length() && !stateSet.isEmpty(); i++) {
+      AutomatonRunner.step(compiledAutomat, epsilonClosure, stateSet, word.charAt(i), reachedStates);
     }
     
-    // Get all reachable states. Includes ArcTransitions
-    ArrayList<Transition> outgoingTransitions = Transition.getTransitionsByStartState(state,
-        automat.getTransitions());
+    return AutomatonRunner.containsFinalState(compiledAutomat, stateSet);
+  }
+  
+  /** accepts() for DEAs, one table-lookup per symbol of the word. Stores the traveled transitions
+   * until the word is read or a symbol of the word is missing in the alphabet. */
+  private boolean acceptsDEA(String word, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    int state = compiledAutomat.getStartState();
     
-    for (int i = 0; i < outgoingTransitions.size(); i++) {
-      Transition transition = outgoingTransitions.get(i);
-      // Skip Epsilon-ArcTransitions
-      if (transition.isArcTransition() && transition.getSymbols().size() <= 0)
-        continue;
+    for (int i = 0; i < word.length(); i++) {
+      int reachedState = deaTable.next(state, word.charAt(i));
+      if (reachedState == -1)
+        return false;
       
-      if (transition.getSymbols().size() >= 1) {
-        // No Epsilon-Transition
-        // If the wordSubstring is empty already, don't allow to read a symbol
-        if (wordSubstring.length() <= 0)
-          continue;
-        
-        // Iterate over all transition-symbols
-        for (int j = 0; j < transition.getSymbols().size(); j++) {
-          if (wordSubstring.charAt(0) == transition.getSymbols().get(j).getSymbol()) {
-            readSymbols.add(new ReadSymbol(wordSubstring.charAt(0), transition));
-            readSymbol(wordSubstring.substring(1), outgoingTransitions.get(i).getTransitionEnd(),
-                automat, readSymbols);
-            readSymbols.remove(readSymbols.size() - 1);
-          }
-        }
-      } else {
-        // Epsilon-Transition
-        // Will the current transition close an cycle with only Epsilon-Transitions? If so,
-        // don't allow this since this leads to a stackOverflow! (algorithm doesn't terminate)
-        if (closesEpsilonCycle(transition, readSymbols))
-          continue;
-        
-        readSymbols.add(new ReadSymbol(null, transition));
-        readSymbol(wordSubstring, outgoingTransitions.get(i).getTransitionEnd(),
-            automat, readSymbols);
-        readSymbols.remove(readSymbols.size() - 1);
-      }
+      usedTransitionsSymbols.add(new ReadSymbol(word.charAt(i), getTransition(state, reachedState, compiledAutomat, automat)));
+      state = reachedState;
     }
+    
+    return compiledAutomat.isFinal(state);
+  }
+  
+  /** The snapshot of the automat all tests run on. */
+  CompiledAutomat getCompiledAutomat() {
+    return compiledAutomat;
   }
-  */
-
   
+  /** null if the automat isn't a DEA. */
+  DEATransitionTable getDEATransitionTable() {
+    return deaTable;
+  }
   
-  /** @return true if the passed transition would close a circle of only Epsilon-transitions.
-   * Without this check, Epsilon-cycles result in a StackOverflow because the algorithm 
-   * doesn't terminate. */
-  private static boolean closesEpsilonCycle(Transition transition, ArrayList<ReadSymbol> readSymbols) {
-    State cycleStart = transition.getTransitionEnd();
-    
-    for (int i = readSymbols.size() - 1; i >= 0; i--) {
-      if (!readSymbols.get(i).getTraveledTransition().isEpsilonTransition()) {
-        // Transition is not an Epsilon-Transition. There is no Epsilon-Cylce
-        return false;
-      } else {
-        // Transition is an Epsilon-Transition. Did the history actually read the Epsilon-Symbol?
-        if (readSymbols.get(i).getReadSymbol().charValue() != '\u03B5')
-          return false;
-        
-        // Epsilon-Transition and the Epsilon-Symbol was actually read. Continue the search
-        if (readSymbols.get(i).getTraveledTransition().getTransitionStart().equals(cycleStart)) {
-          // There is an Epsilon-cycle
-          return true;
-        }
-      }
+  /** null if the automat is a DEA or too large for the bit-vector engine. */
+  BitParallelNEA getBitParallelNEA() {
+    return bitParallelNEA;
+  }
+  
+  /** null unless the automat is an Epsilon-automat too large for the bit-vector engine. */
+  EpsilonClosure getEpsilonClosure() {
+    return epsilonClosure;
+  }
+  
+  /** Returns the Transition of the automat the edge between the two dense states was compiled from. */
+  static Transition getTransition(int state, int target, CompiledAutomat compiledAutomat, Automat automat) {
+    return automat.getTransition(compiledAutomat.getStateIndex(state), compiledAutomat.getStateIndex(target));
+  }
+  
+  /** Returns the step of a path of a word test reading the symbol, '\u03B5' for an Epsilon-Transition,
+   * on the edge between the two dense states. */
+  static ReadSymbol readSymbol(char symbol, int state, int target, CompiledAutomat compiledAutomat,
+      Automat automat) {
+    return new ReadSymbol(symbol, getTransition(state, target, compiledAutomat, automat));
+  }
+  
+  /** Adds a path which was rebuilt backwards from its last step in reading order to the passed
+   * ArrayList. */
+  static void addPath(ArrayList<ReadSymbol> reversedPath, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    for (int i = reversedPath.size() - 1; i >= 0; i--) {
+      usedTransitionsSymbols.add(reversedPath.get(i));
     }
-    
-    return false;
   }
-}
+}
\ No newline at end of file
@@ -87,8 +87,8 @@ public class LayoutCircle {
           State comparedState = layoutCircles[i].layoutPositions[j].state;
           
           // do the states have a transition between themselves?
-          if (state.gotTransitionTo(comparedState, automat.getTransitions()) != null ||
-              comparedState.gotTransitionTo(state, automat.getTransitions()) != null) {
+          if (state.gotTransitionTo(comparedState, automat) != null ||
+              comparedState.gotTransitionTo(state, automat) != null) {
             // The states coordinates are not set yet, use the layoutPositions instead
             Point statePosi = layoutCircles[circleNumber].layoutPositions[layoutPositionsIndex].position;
             Point comparedStatePosi = layoutCircles[i].layoutPositions[j].position;
@@ -0,0 +1,78 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.concurrent.ForkJoinPool;
+
+/** Brzozowski's minimization of a NEA: reverse, determinize, reverse, determinize. Determinizing a
+ * reversed DEA without unreachable states yields the minimal DEA, so no minimization-algorithm runs on
+ * the possibly huge DEA of the NEA. The subset constructions number the states in the order of their
+ * discovery by row and column, like the subset construction of the NEA, so the result is the same
+ * minimal DEA as the one of the subset construction minimized by Hopcroft. */
+public class MinimizationBrzozowski {
+  /** Transitions per (state, symbol) from which on Brzozowski is preferred to the subset
+   * construction followed by Hopcroft, for NEAs that are nondeterministic in both directions. A
+   * heuristic: the denser the NEA, the larger its DEA tends to be compared to the minimal DEA. */
+  public static final double PREFERABLE_DENSITY = 2.0;
+  
+  /** States of the NEA times this is the most states the first subset construction of
+   * tryMinimalDEA() may find. The DEA of the reversed NEA can be exponentially larger than the one
+   * of the NEA, e.g. for "the k-th symbol is an a". */
+  public static final int TRIAL_STATES_PER_STATE = 8;
+  /** The least number of states the first subset construction of tryMinimalDEA() may find. */
+  public static final int TRIAL_MIN_STATES = 1024;
+  
+  /** Returns the minimal DEA of the NEA, with the start-state 0.
+   * @param budget Limits both subset constructions, null for no limits.
+   * @param pool Runs the subset constructions in parallel, null to run them on the calling thread.
+   * @throws TransformationAbortedException if the budget ran out or was cancelled. */
+  public static DEATransitionTable minimalDEA(NEATransitionTable nea, TransformationBudget budget,
+      ForkJoinPool pool) {
+    return nea.reverse().determinize(budget, pool).reverse().determinize(budget, pool);
+  }
+  
+  /** Like minimalDEA(), for MINIMIZATION_AUTOMATIC: returns null instead if the DEA of the reversed
+   * NEA exceeds the limits of the budget or TRIAL_STATES_PER_STATE times the states of the NEA,
+   * the subset construction of the NEA has to be used then. The second subset construction finds
+   * the minimal DEA, it's never larger than the DEA of the NEA.
+   * @throws TransformationAbortedException if the budget was cancelled or ran out in the second
+   *         subset construction. */
+  public static DEATransitionTable tryMinimalDEA(NEATransitionTable nea, TransformationBudget budget,
+      ForkJoinPool pool) {
+    int trialStates = (int) Math.min(Integer.MAX_VALUE,
+        Math.max(TRIAL_MIN_STATES, (long) TRIAL_STATES_PER_STATE * nea.getStateCount()));
+    
+    DEATransitionTable reversedDEA;
+    try {
+      reversedDEA = nea.reverse().determinize(TransformationBudget.limitStates(budget, trialStates), pool);
+    } catch (TransformationAbortedException e) {
+      if (e.getReason() == TransformationAbortedException.CANCELLED)
+        throw e;
+      
+      return null;
+    }
+    
+    return reversedDEA.reverse().determinize(budget, pool);
+  }
+  
+  /** Decides by the shape of the NEA whether minimalDEA() is expected to be faster than the subset
+   * construction followed by a minimization. The subset construction of a NEA which is deterministic
+   * already is linear, so is the first one of Brzozowski if the reversed NEA is deterministic. Else
+   * the density of the transitions decides. */
+  public static boolean isPreferable(NEATransitionTable nea) {
+    if (nea.getStateCount() == 0 || nea.getAlphabetSize() == 0)
+      return false;
+    
+    if (nea.nondeterministicSlots() == 0)
+      return false;
+    
+    if (nea.reverse().nondeterministicSlots() == 0)
+      return true;
+    
+    double density = (double) nea.getTransitionCount() / ((double) nea.getStateCount() * nea.getAlphabetSize());
+    return density >= PREFERABLE_DENSITY;
+  }
+}
@@ -0,0 +1,195 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Hopcroft's partition-refinement algorithm for the minimization of a DEA in
+ * O(n * |alphabet| * log n). Starts with the partition {end-states, other states} and splits the
+ * blocks by the predecessors of a splitter-block until no block can be split anymore. The blocks
+ * are the equivalence-classes of the states then. All working state lives in primitive arrays. */
+public class MinimizationHopcroft {
+  private final DEATransitionTable deaTable;
+  private final int stateCount;
+  private final int alphabetSize;
+  
+  private DEAPredecessorTable predecessorTable;
+  
+  // The partition. The states of a block are elements[blockStart[b]] to elements[blockEnd[b] - 1],
+  // the marked states of a block are at the front of its range
+  private int[] elements;
+  private int[] location;
+  private int[] blockOf;
+  private int[] blockStart;
+  private int[] blockEnd;
+  private int[] markedCount;
+  private int blockCount;
+  
+  // Worklist of the splitters (block, column)
+  private int[] worklistBlocks;
+  private int[] worklistColumns;
+  private int worklistSize;
+  private boolean[] inWorklist;
+  
+  private MinimizationHopcroft(DEATransitionTable deaTable) {
+    this.deaTable = deaTable;
+    this.stateCount = deaTable.getStateCount();
+    this.alphabetSize = deaTable.getAlphabetSize();
+  }
+  
+  /** Returns the equivalence-class of every dense state of the tables DEA, numbered from 0.
+   * Equivalent states have the same class. The table must be complete (a DEA). */
+  public static int[] equivalenceClasses(DEATransitionTable deaTable) {
+    MinimizationHopcroft hopcroft = new MinimizationHopcroft(deaTable);
+    hopcroft.refine();
+    
+    return hopcroft.blockOf;
+  }
+  
+  private void refine() {
+    blockOf = new int[stateCount];
+    if (stateCount == 0)
+      return;
+    
+    predecessorTable = new DEAPredecessorTable(deaTable);
+    initPartition();
+    
+    int[] splitter = new int[stateCount];
+    int[] touchedBlocks = new int[stateCount];
+    
+    while (worklistSize > 0) {
+      worklistSize--;
+      int splitterBlock = worklistBlocks[worklistSize];
+      int column = worklistColumns[worklistSize];
+      inWorklist[splitterBlock * alphabetSize + column] = false;
+      
+      // Copy the splitter, marking can reorder its own range
+      int splitterSize = blockEnd[splitterBlock] - blockStart[splitterBlock];
+      System.arraycopy(elements, blockStart[splitterBlock], splitter, 0, splitterSize);
+      
+      // Mark all predecessors of the splitter by the column's symbol
+      int touchedCount = 0;
+      for (int i = 0; i < splitterSize; i++) {
+        int state = splitter[i];
+        
+        for (int j = predecessorTable.predecessorStart(state, column);
+            j < predecessorTable.predecessorEnd(state, column); j++) {
+          int predecessor = predecessorTable.predecessor(j);
+          int block = blockOf[predecessor];
+          if (markedCount[block] == 0)
+            touchedBlocks[touchedCount++] = block;
+          
+          mark(predecessor);
+        }
+      }
+      
+      // Split every touched block into its marked and unmarked states
+      for (int i = 0; i < touchedCount; i++) {
+        split(touchedBlocks[i]);
+      }
+    }
+  }
+  
+  /** Moves the state into the marked front of its block, unless it's marked already. */
+  private void mark(int state) {
+    int block = blockOf[state];
+    int firstUnmarked = blockStart[block] + markedCount[block];
+    
+    if (location[state] < firstUnmarked)
+      return;
+    
+    // Swap with the first unmarked state of the block
+    int swappedState = elements[firstUnmarked];
+    elements[location[state]] = swappedState;
+    location[swappedState] = location[state];
+    elements[firstUnmarked] = state;
+    location[state] = firstUnmarked;
+    
+    markedCount[block]++;
+  }
+  
+  /** Splits off the marked states as a new block in case not all states of the block are marked. */
+  private void split(int block) {
+    int marked = markedCount[block];
+    markedCount[block] = 0;
+    
+    if (marked == blockEnd[block] - blockStart[block])
+      return;
+    
+    int newBlock = blockCount++;
+    blockStart[newBlock] = blockStart[block];
+    blockEnd[newBlock] = blockStart[block] + marked;
+    blockStart[block] = blockEnd[newBlock];
+    
+    for (int i = blockStart[newBlock]; i < blockEnd[newBlock]; i++) {
+      blockOf[elements[i]] = newBlock;
+    }
+    
+    // A block waiting as splitter is replaced by both parts, otherwise the smaller part suffices
+    int smallerBlock = (blockEnd[newBlock] - blockStart[newBlock] <= blockEnd[block] - blockStart[block]) ?
+        newBlock : block;
+    for (int column = 0; column < alphabetSize; column++) {
+      if (inWorklist[block * alphabetSize + column])
+        addToWorklist(newBlock, column);
+      else
+        addToWorklist(smallerBlock, column);
+    }
+  }
+  
+  private void addToWorklist(int block, int column) {
+    inWorklist[block * alphabetSize + column] = true;
+    worklistBlocks[worklistSize] = block;
+    worklistColumns[worklistSize] = column;
+    worklistSize++;
+  }
+  
+  /** The initial partition {end-states, other states}, the smaller one is the first splitter. */
+  private void initPartition() {
+    elements = new int[stateCount];
+    location = new int[stateCount];
+    blockStart = new int[stateCount];
+    blockEnd = new int[stateCount];
+    markedCount = new int[stateCount];
+    
+    // Every split adds at most one splitter per symbol
+    worklistBlocks = new int[stateCount * alphabetSize];
+    worklistColumns = new int[stateCount * alphabetSize];
+    inWorklist = new boolean[stateCount * alphabetSize];
+    
+    // End-states first, then the others
+    int finalCount = 0;
+    for (int state = 0; state < stateCount; state++) {
+      if (deaTable.isFinal(state))
+        finalCount++;
+    }
+    
+    int nextFinal = 0;
+    int nextOther = finalCount;
+    for (int state = 0; state < stateCount; state++) {
+      int position = deaTable.isFinal(state) ? nextFinal++ : nextOther++;
+      elements[position] = state;
+      location[state] = position;
+    }
+    
+    if (finalCount == 0 || finalCount == stateCount) {
+      // Only one block, all states are equivalent
+      blockCount = stateCount > 0 ? 1 : 0;
+      blockEnd[0] = stateCount;
+      return;
+    }
+    
+    blockCount = 2;
+    blockEnd[0] = finalCount;
+    blockStart[1] = finalCount;
+    blockEnd[1] = stateCount;
+    for (int state = 0; state < stateCount; state++) {
+      blockOf[state] = deaTable.isFinal(state) ? 0 : 1;
+    }
+    
+    int smallerBlock = finalCount <= stateCount - finalCount ? 0 : 1;
+    for (int column = 0; column < alphabetSize; column++) {
+      addToWorklist(smallerBlock, column);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/** Moore's minimization of a DEA, with the refinement rounds running in parallel on a ForkJoinPool.
+ * Starts with the classes {end-states, other states}. Every round computes the ClassSignature of
+ * every state and gives states with equal signatures the same class, until the number of classes
+ * doesn't grow anymore. A class is identified by its smallest state during the rounds, so the result
+ * doesn't depend on the number of threads or their scheduling. */
+public class MinimizationMoore {
+  /** Below this number of states a round runs on the calling thread only. */
+  private static final int PARALLEL_THRESHOLD = 4096;
+  
+  private static final int PHASE_SIGNATURES = 0;
+  private static final int PHASE_CLASSES = 1;
+  
+  private final DEATransitionTable deaTable;
+  private final ForkJoinPool pool;
+  private final int stateCount;
+  
+  /** The class of every state, identified by the smallest state of the class. */
+  private int[] classes;
+  private int[] nextClasses;
+  private ClassSignature[] signatures;
+  /** Signature -> smallest state with this signature, for the current round. */
+  private ConcurrentHashMap<ClassSignature, Integer> representatives;
+  
+  private MinimizationMoore(DEATransitionTable deaTable, ForkJoinPool pool) {
+    this.deaTable = deaTable;
+    this.pool = pool;
+    this.stateCount = deaTable.getStateCount();
+  }
+  
+  /** Returns the equivalence-class of every dense state of the tables DEA, numbered from 0 in the
+   * order of the states. Runs on the common ForkJoinPool. The table must be complete (a DEA). */
+  public static int[] equivalenceClasses(DEATransitionTable deaTable) {
+    return equivalenceClasses(deaTable, ForkJoinPool.commonPool());
+  }
+  
+  /** Like equivalenceClasses(DEATransitionTable), on the passed pool. */
+  public static int[] equivalenceClasses(DEATransitionTable deaTable, ForkJoinPool pool) {
+    MinimizationMoore moore = new MinimizationMoore(deaTable, pool);
+    moore.refine();
+    
+    return moore.toEquivalenceClasses();
+  }
+  
+  private void refine() {
+    classes = new int[stateCount];
+    nextClasses = new int[stateCount];
+    signatures = new ClassSignature[stateCount];
+    
+    // The base classes: end-states and the other states
+    int firstFinal = -1;
+    int firstOther = -1;
+    int classCount = 0;
+    for (int state = 0; state < stateCount; state++) {
+      if (deaTable.isFinal(state)) {
+        if (firstFinal == -1) {
+          firstFinal = state;
+          classCount++;
+        }
+        classes[state] = firstFinal;
+      } else {
+        if (firstOther == -1) {
+          firstOther = state;
+          classCount++;
+        }
+        classes[state] = firstOther;
+      }
+    }
+    
+    // Refinement rounds. A round can only split classes, an unchanged number of classes means
+    // an unchanged partition
+    while (true) {
+      representatives = new ConcurrentHashMap<ClassSignature, Integer>(classCount * 2);
+      runPhase(PHASE_SIGNATURES);
+      runPhase(PHASE_CLASSES);
+      
+      int[] swap = classes;
+      classes = nextClasses;
+      nextClasses = swap;
+      
+      if (representatives.size() == classCount)
+        break;
+      
+      classCount = representatives.size();
+    }
+    
+    signatures = null;
+    representatives = null;
+  }
+  
+  /** Runs the phase for all states, split into chunks on the pool. */
+  private void runPhase(final int phase) {
+    ParallelRange.run(pool, stateCount, PARALLEL_THRESHOLD, new RangeTask() {
+      @Override
+      public void run(int from, int to) {
+        runPhase(phase, from, to);
+      }
+    });
+  }
+  
+  private void runPhase(int phase, int from, int to) {
+    int alphabetSize = deaTable.getAlphabetSize();
+    
+    for (int state = from; state < to; state++) {
+      if (phase == PHASE_SIGNATURES) {
+        // Own class first, so only states of the same class can end up in the same new class
+        int[] signature = new int[alphabetSize + 1];
+        signature[0] = classes[state];
+        for (int column = 0; column < alphabetSize; column++) {
+          signature[column + 1] = classes[deaTable.next(state, column)];
+        }
+        signatures[state] = new ClassSignature(signature);
+        
+        putRepresentative(signatures[state], state);
+      } else {
+        nextClasses[state] = representatives.get(signatures[state]);
+      }
+    }
+  }
+  
+  /** Keeps the smallest state per signature, no matter in which order the threads arrive. */
+  private void putRepresentative(ClassSignature signature, int state) {
+    Integer representative = representatives.putIfAbsent(signature, state);
+    
+    while (representative != null && representative > state) {
+      if (representatives.replace(signature, representative, state))
+        return;
+      
+      representative = representatives.get(signature);
+    }
+  }
+  
+  /** Renumbers the classes from 0 in the order of their smallest state. */
+  private int[] toEquivalenceClasses() {
+    int[] classNumbers = new int[stateCount];
+    Arrays.fill(classNumbers, -1);
+    
+    int[] equivalenceClasses = new int[stateCount];
+    int classCount = 0;
+    for (int state = 0; state < stateCount; state++) {
+      if (classNumbers[classes[state]] == -1)
+        classNumbers[classes[state]] = classCount++;
+      
+      equivalenceClasses[state] = classNumbers[classes[state]];
+    }
+    
+    return equivalenceClasses;
+  }
+}
@@ -0,0 +1,135 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+
+/** The table-filling Algorithm of Abb. 2.3.1 in the script for the minimization of a DEA. A state-pair
+ * is marked once the two states are known to be not equivalent, the unmarked pairs are equivalent
+ * in the end. Instead of sweeping the whole table until nothing changes, every newly marked pair is
+ * propagated once to its predecessor-pairs (Hopcroft-Ullman): if (p, q) is marked, every pair
+ * (p', q') reading the same symbol into (p, q) is marked as well. */
+public class MinimizationTableFilling {
+  private final DEATransitionTable deaTable;
+  private final int stateCount;
+  
+  /** The equivalence-table as a triangular bit-table, one bit per pair (p, q) with p < q at
+   * pairIndex(p, q). A set bit means marked (not equivalent). */
+  private final long[] markedPairs;
+  /** The worklist of the marked pairs that weren't propagated to their predecessor-pairs yet, the
+   * pair i is (pendingP[i], pendingQ[i]). */
+  private int[] pendingP = new int[16];
+  private int[] pendingQ = new int[16];
+  private int pendingCount;
+  
+  private MinimizationTableFilling(DEATransitionTable deaTable) {
+    this.deaTable = deaTable;
+    this.stateCount = deaTable.getStateCount();
+    
+    long pairCount = (long) stateCount * (stateCount - 1) / 2;
+    markedPairs = new long[(int) ((pairCount + 63) / 64)];
+  }
+  
+  /** Returns the equivalence-class of every dense state of the tables DEA, numbered from 0 in the
+   * order of the states. The table must be complete (a DEA). */
+  public static int[] equivalenceClasses(DEATransitionTable deaTable) {
+    MinimizationTableFilling tableFilling = new MinimizationTableFilling(deaTable);
+    
+    // The marking before the main loop: end-states aren't equivalent to the other states
+    tableFilling.baseMarking();
+    
+    // The iteration marking (2nd step of the Algorithm of Abb. 2.3.1)
+    tableFilling.propagateMarkings();
+    
+    return tableFilling.toEquivalenceClasses();
+  }
+  
+  private void baseMarking() {
+    for (int q = 1; q < stateCount; q++) {
+      for (int p = 0; p < q; p++) {
+        if (deaTable.isFinal(p) != deaTable.isFinal(q))
+          mark(p, q);
+      }
+    }
+  }
+  
+  /** Propagates the pending pairs until there are none left. Every pair is pending at most once. */
+  private void propagateMarkings() {
+    DEAPredecessorTable predecessorTable = new DEAPredecessorTable(deaTable);
+    
+    while (pendingCount > 0) {
+      pendingCount--;
+      int p = pendingP[pendingCount];
+      int q = pendingQ[pendingCount];
+      
+      // Mark all pairs reading the same symbol into (p, q)
+      for (int column = 0; column < deaTable.getAlphabetSize(); column++) {
+        for (int i = predecessorTable.predecessorStart(p, column);
+            i < predecessorTable.predecessorEnd(p, column); i++) {
+          int predecessorP = predecessorTable.predecessor(i);
+          
+          for (int j = predecessorTable.predecessorStart(q, column);
+              j < predecessorTable.predecessorEnd(q, column); j++) {
+            int predecessorQ = predecessorTable.predecessor(j);
+            
+            if (predecessorP != predecessorQ && !isMarked(predecessorP, predecessorQ))
+              mark(predecessorP, predecessorQ);
+          }
+        }
+      }
+    }
+  }
+  
+  /** Every state joins the class of the first state it's equivalent to (unmarked pair), which
+   * is transitive. */
+  private int[] toEquivalenceClasses() {
+    int[] equivalenceClasses = new int[stateCount];
+    Arrays.fill(equivalenceClasses, -1);
+    
+    int classCount = 0;
+    for (int p = 0; p < stateCount; p++) {
+      if (equivalenceClasses[p] != -1)
+        continue;
+      
+      equivalenceClasses[p] = classCount;
+      for (int q = p + 1; q < stateCount; q++) {
+        if (!isMarked(p, q))
+          equivalenceClasses[q] = classCount;
+      }
+      classCount++;
+    }
+    
+    return equivalenceClasses;
+  }
+  
+  /** Marks the pair and pushes it on the pending pairs. */
+  private void mark(int p, int q) {
+    long pairIndex = pairIndex(p, q);
+    markedPairs[(int) (pairIndex >>> 6)] |= 1L << pairIndex;
+    
+    if (pendingCount == pendingP.length) {
+      pendingP = Arrays.copyOf(pendingP, pendingCount * 2);
+      pendingQ = Arrays.copyOf(pendingQ, pendingCount * 2);
+    }
+    pendingP[pendingCount] = p;
+    pendingQ[pendingCount] = q;
+    pendingCount++;
+  }
+  
+  /** (p, q) is the same pair like (q, p) for the Algorithm. */
+  private boolean isMarked(int p, int q) {
+    long pairIndex = pairIndex(p, q);
+    return (markedPairs[(int) (pairIndex >>> 6)] & (1L << pairIndex)) != 0;
+  }
+  
+  /** Index of the pair in the triangular bit-table, both orders of the states give the same index. */
+  private static long pairIndex(int p, int q) {
+    if (p > q)
+      return (long) p * (p - 1) / 2 + q;
+    
+    return (long) q * (q - 1) / 2 + p;
+  }
+}
@@ -0,0 +1,332 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import editor.Symbol;
+
+/** The transfer-function of a NEA without Epsilon-Transitions on primitive arrays, the counterpart
+ * of the DEATransitionTable. The states reached from (state, column) are successor(i) for i from
+ * successorStart() to successorEnd() - 1, compressed-sparse-row form by state * alphabetSize +
+ * column. Can have several start-states, as the reverse of a DEA has. Immutable. */
+public class NEATransitionTable {
+  private final int stateCount;
+  /** column -> symbol, in the order of the symbol-mask bits (the order of Util.getAlphabet()). */
+  private final char[] symbols;
+  private final int alphabetSize;
+  private final int[] offsets;
+  private final int[] successors;
+  private final BitSet startStates;
+  private final BitSet finalStates;
+  
+  // Estimated bytes of a subset, plus its row of the table, for the memory limit of a budget
+  private static final int SUBSET_BYTES = 96;
+  /** Frontiers below this number of rows are computed on the calling thread. */
+  private static final int PARALLEL_THRESHOLD = 64;
+  /** Maximal rows of a frontier computed before the budget is checked, bounds the reached subsets
+   * computed beyond the limits of the budget. */
+  private static final int FRONTIER_ROWS = 1024;
+  
+  /** The arrays are not copied. */
+  NEATransitionTable(int stateCount, char[] symbols, int[] offsets, int[] successors, BitSet startStates,
+      BitSet finalStates) {
+    this.stateCount = stateCount;
+    this.symbols = symbols;
+    this.alphabetSize = symbols.length;
+    this.offsets = offsets;
+    this.successors = successors;
+    this.startStates = startStates;
+    this.finalStates = finalStates;
+  }
+  
+  /** Builds the NEA of the compiled automat, its dense states are the states of the NEA. Epsilon-
+   * Transitions are removed like Transformation.transformToNEA() does, without building the NEA as
+   * an automat: a state reads what all states of its Epsilon-closure read, it's an end-state if its
+   * closure contains one. The alphabet are all symbols of the automat except Epsilon. */
+  public static NEATransitionTable fromAutomat(CompiledAutomat compiledAutomat) {
+    int stateCount = compiledAutomat.getStateCount();
+    EpsilonClosure epsilonClosure = compiledAutomat.isNEA() ? null : new EpsilonClosure(compiledAutomat);
+    
+    long alphabetMask = compiledAutomat.getAlphabetMask() & ~Symbol.EPSILON_MASK;
+    int alphabetSize = Long.bitCount(alphabetMask);
+    char[] symbols = new char[alphabetSize];
+    int[] columns = new int[Symbol.SYMBOL_MASK_BITS];
+    int column = 0;
+    for (int bit = 0; bit < Symbol.SYMBOL_MASK_BITS; bit++) {
+      if ((alphabetMask & (1L << bit)) != 0) {
+        symbols[column] = Symbol.fromMaskBit(bit);
+        columns[bit] = column++;
+      }
+    }
+    
+    int[] offsets = new int[stateCount * alphabetSize + 1];
+    int[] successors = new int[Math.max(16, compiledAutomat.getEdgeCount())];
+    int successorCount = 0;
+    
+    // The symbol-mask bits read to each target from the current state, and the targets in the order
+    // of their discovery. A target is stored once per column
+    long[] targetSymbolMasks = new long[stateCount];
+    int[] targets = new int[stateCount];
+    int[] columnCounts = new int[alphabetSize];
+    BitSet ownClosure = new BitSet(stateCount);
+    BitSet finalStates = new BitSet(stateCount);
+    
+    for (int state = 0; state < stateCount; state++) {
+      BitSet closure;
+      if (epsilonClosure != null)
+        closure = epsilonClosure.getClosure(state);
+      else {
+        ownClosure.clear();
+        ownClosure.set(state);
+        closure = ownClosure;
+      }
+      
+      if (epsilonClosure != null ? epsilonClosure.reachesFinalState(state) : compiledAutomat.isFinal(state))
+        finalStates.set(state);
+      
+      int targetCount = 0;
+      for (int reached = closure.nextSetBit(0); reached >= 0; reached = closure.nextSetBit(reached + 1)) {
+        for (int edge = compiledAutomat.edgeStart(reached); edge < compiledAutomat.edgeEnd(reached); edge++) {
+          int target = compiledAutomat.edgeTarget(edge);
+          long newSymbols = compiledAutomat.edgeSymbolMask(edge) & ~Symbol.EPSILON_MASK
+              & ~targetSymbolMasks[target];
+          if (newSymbols == 0)
+            continue;
+          
+          if (targetSymbolMasks[target] == 0)
+            targets[targetCount++] = target;
+          
+          targetSymbolMasks[target] |= newSymbols;
+          for (long bits = newSymbols; bits != 0; bits &= bits - 1) {
+            columnCounts[columns[Long.numberOfTrailingZeros(bits)]]++;
+          }
+        }
+      }
+      
+      // The slots of the state, then the targets in the order of their discovery
+      int slot = state * alphabetSize;
+      for (column = 0; column < alphabetSize; column++) {
+        offsets[slot + column + 1] = offsets[slot + column] + columnCounts[column];
+        columnCounts[column] = 0;
+      }
+      
+      int stateSuccessors = offsets[slot + alphabetSize] - offsets[slot];
+      if (successorCount + stateSuccessors > successors.length)
+        successors = Arrays.copyOf(successors, Math.max(successors.length * 2, successorCount + stateSuccessors));
+      
+      for (int i = 0; i < targetCount; i++) {
+        for (long bits = targetSymbolMasks[targets[i]]; bits != 0; bits &= bits - 1) {
+          int targetColumn = columns[Long.numberOfTrailingZeros(bits)];
+          successors[offsets[slot + targetColumn] + columnCounts[targetColumn]++] = targets[i];
+        }
+        targetSymbolMasks[targets[i]] = 0;
+      }
+      
+      for (column = 0; column < alphabetSize; column++) {
+        columnCounts[column] = 0;
+      }
+      successorCount += stateSuccessors;
+    }
+    
+    BitSet startStates = new BitSet(stateCount);
+    if (compiledAutomat.getStartState() != -1)
+      startStates.set(compiledAutomat.getStartState());
+    
+    return new NEATransitionTable(stateCount, symbols, offsets, Arrays.copyOf(successors, successorCount),
+        startStates, finalStates);
+  }
+  
+  /** Returns the NEA with all transitions reversed, the end-states are its start-states and vice
+   * versa. Counting sort by (successor, column), the predecessors are ascending. */
+  public NEATransitionTable reverse() {
+    int[] reversedOffsets = new int[offsets.length];
+    for (int slot = 0; slot < stateCount * alphabetSize; slot++) {
+      for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+        reversedOffsets[successors[i] * alphabetSize + slot % alphabetSize + 1]++;
+      }
+    }
+    
+    for (int i = 1; i < reversedOffsets.length; i++) {
+      reversedOffsets[i] += reversedOffsets[i - 1];
+    }
+    
+    int[] reversedSuccessors = new int[successors.length];
+    int[] fill = Arrays.copyOf(reversedOffsets, reversedOffsets.length);
+    for (int slot = 0; slot < stateCount * alphabetSize; slot++) {
+      for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+        reversedSuccessors[fill[successors[i] * alphabetSize + slot % alphabetSize]++] = slot / alphabetSize;
+      }
+    }
+    
+    return new NEATransitionTable(stateCount, symbols, reversedOffsets, reversedSuccessors, finalStates,
+        startStates);
+  }
+  
+  /** The subset construction, starting with the set of all start-states. The states of the DEA are
+   * numbered in the order of their discovery by row and column, the empty subset is a state as
+   * well if it's reached. The DEA is complete, its start-state is 0.
+   * @param budget Checked after every row, null for no limits.
+   * @throws TransformationAbortedException if the budget ran out or was cancelled. */
+  public DEATransitionTable determinize(TransformationBudget budget) {
+    return determinize(budget, null);
+  }
+  
+  /** Like determinize(TransformationBudget), computes the subset construction frontier by
+   * frontier: the reached subsets of up to FRONTIER_ROWS rows not computed yet are computed
+   * concurrently on the pool. Afterwards they are numbered on the calling thread in the order of
+   * their discovery by row and column, so the DEA is the same as the sequential one, for any
+   * number of threads. Pass null as the pool to compute everything on the calling thread.
+   * @throws TransformationAbortedException if the budget ran out or was cancelled, also if the
+   *         calling thread is interrupted while it waits for the pool. */
+  public DEATransitionTable determinize(TransformationBudget budget, ForkJoinPool pool) {
+    final ArrayList<StateSubset> subsets = new ArrayList<StateSubset>();
+    HashMap<StateSubset, Integer> subsetNumbers = new HashMap<StateSubset, Integer>();
+    int[] table = new int[Math.max(16, alphabetSize)];
+    long estimatedBytes = 0;
+    
+    StateSubset startSubset = StateSubset.fromBitSet(startStates);
+    subsets.add(startSubset);
+    subsetNumbers.put(startSubset, 0);
+    BitSet deaFinalStates = new BitSet();
+    
+    int row = 0;
+    while (row < subsets.size()) {
+      final int frontierFrom = row;
+      final int frontierTo = Math.min(subsets.size(), row + FRONTIER_ROWS);
+      final StateSubset[] reachedSubsets = new StateSubset[(frontierTo - frontierFrom) * alphabetSize];
+      
+      RangeTask frontierTask = new RangeTask() {
+        @Override
+        public void run(int from, int to) {
+          // Collect the states of a reached subset, marked by the stamp of the current (row, column)
+          int[] reachedStates = new int[stateCount];
+          int[] stamps = new int[stateCount];
+          int stamp = 0;
+          
+          for (int i = from; i < to; i++) {
+            StateSubset subset = subsets.get(frontierFrom + i);
+            
+            for (int column = 0; column < alphabetSize; column++) {
+              reachedSubsets[i * alphabetSize + column] = reachedSubset(subset, column, reachedStates, stamps,
+                  ++stamp);
+            }
+          }
+        }
+      };
+      
+      if (pool == null)
+        frontierTask.run(0, frontierTo - frontierFrom);
+      else
+        ParallelRange.run(pool, frontierTo - frontierFrom, PARALLEL_THRESHOLD, frontierTask);
+      
+      // Number the new subsets deterministically
+      for (; row < frontierTo; row++) {
+        if (table.length < (row + 1) * alphabetSize)
+          table = Arrays.copyOf(table, Math.max(table.length * 2, (row + 1) * alphabetSize));
+        
+        for (int column = 0; column < alphabetSize; column++) {
+          StateSubset reachedSubset = reachedSubsets[(row - frontierFrom) * alphabetSize + column];
+          
+          Integer number = subsetNumbers.get(reachedSubset);
+          if (number == null) {
+            number = subsets.size();
+            subsets.add(reachedSubset);
+            subsetNumbers.put(reachedSubset, number);
+            estimatedBytes += SUBSET_BYTES + 4L * (reachedSubset.size() + alphabetSize);
+          }
+          
+          table[row * alphabetSize + column] = number;
+        }
+        
+        StateSubset subset = subsets.get(row);
+        for (int i = 0; i < subset.size(); i++) {
+          if (finalStates.get(subset.get(i))) {
+            deaFinalStates.set(row);
+            break;
+          }
+        }
+        
+        if (budget != null)
+          budget.checkRow(subsets.size(), row + 1, estimatedBytes);
+      }
+    }
+    
+    return new DEATransitionTable(subsets.size(), symbols, Arrays.copyOf(table, subsets.size() * alphabetSize),
+        deaFinalStates);
+  }
+  
+  /** Returns the subset of the states reached by reading the symbol of the column from the states
+   * of the subset. reachedStates and stamps are working memory of stateCount ints, the stamp must
+   * differ from all stamps used before on them. */
+  private StateSubset reachedSubset(StateSubset subset, int column, int[] reachedStates, int[] stamps,
+      int stamp) {
+    int reachedCount = 0;
+    
+    for (int i = 0; i < subset.size(); i++) {
+      int slot = subset.get(i) * alphabetSize + column;
+      
+      for (int j = offsets[slot]; j < offsets[slot + 1]; j++) {
+        if (stamps[successors[j]] != stamp) {
+          stamps[successors[j]] = stamp;
+          reachedStates[reachedCount++] = successors[j];
+        }
+      }
+    }
+    
+    Arrays.sort(reachedStates, 0, reachedCount);
+    return new StateSubset(Arrays.copyOf(reachedStates, reachedCount));
+  }
+  
+  /** Counts the (state, column)-pairs with more than one successor, 0 for a deterministic NEA. */
+  public int nondeterministicSlots() {
+    int count = 0;
+    for (int slot = 0; slot < stateCount * alphabetSize; slot++) {
+      if (offsets[slot + 1] - offsets[slot] > 1)
+        count++;
+    }
+    
+    return count;
+  }
+  
+  // Getters
+  public int getStateCount() {
+    return stateCount;
+  }
+  
+  public int getAlphabetSize() {
+    return alphabetSize;
+  }
+  
+  public char getSymbol(int column) {
+    return symbols[column];
+  }
+  
+  /** All transitions, counted once per symbol. */
+  public int getTransitionCount() {
+    return successors.length;
+  }
+  
+  public int successorStart(int state, int column) {
+    return offsets[state * alphabetSize + column];
+  }
+  
+  public int successorEnd(int state, int column) {
+    return offsets[state * alphabetSize + column + 1];
+  }
+  
+  public int successor(int i) {
+    return successors[i];
+  }
+  
+  public boolean isFinal(int state) {
+    return finalStates.get(state);
+  }
+}
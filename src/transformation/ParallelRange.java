@@ -0,0 +1,66 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/** Splits an index range into chunks and runs a RangeTask on them on a ForkJoinPool. Returns when
+ * all chunks are done, so everything the chunks wrote is visible to the caller afterwards. */
+public class ParallelRange {
+  /** Chunks per thread of the pool, evens out chunks of unequal work. */
+  private static final int CHUNKS_PER_THREAD = 4;
+  
+  /** Runs the task on the indices 0 to size - 1. Ranges below the threshold, or a pool with only
+   * one thread, run on the calling thread as one chunk. A RuntimeException or Error of a chunk is
+   * rethrown as it is.
+   * @throws TransformationAbortedException CANCELLED if the calling thread is interrupted while it
+   *         waits for the chunks, the interrupt flag stays set. */
+  public static void run(ForkJoinPool pool, int size, int sequentialThreshold, final RangeTask task) {
+    if (size < sequentialThreshold || pool.getParallelism() <= 1) {
+      task.run(0, size);
+      return;
+    }
+    
+    int chunkCount = pool.getParallelism() * CHUNKS_PER_THREAD;
+    int chunkSize = (size + chunkCount - 1) / chunkCount;
+    ArrayList<Callable<Void>> chunks = new ArrayList<Callable<Void>>();
+    for (int from = 0; from < size; from += chunkSize) {
+      final int chunkFrom = from;
+      final int chunkTo = Math.min(from + chunkSize, size);
+      
+      chunks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          task.run(chunkFrom, chunkTo);
+          return null;
+        }
+      });
+    }
+    
+    try {
+      for (Future<Void> future : pool.invokeAll(chunks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      // Interrupting the waiting thread cancels the computation, like TransformationBudget does
+      Thread.currentThread().interrupt();
+      throw new TransformationAbortedException(TransformationAbortedException.CANCELLED,
+          "Parallel computation interrupted");
+    } catch (ExecutionException e) {
+      // Rethrow what a chunk threw, e.g. the TransformationAbortedException of a budget, unwrapped
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      
+      throw new IllegalStateException("Parallel computation failed", e.getCause());
+    }
+  }
+}
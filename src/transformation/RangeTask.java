@@ -0,0 +1,12 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Work on a range of indices, run by ParallelRange. Runs concurrently with the other ranges. */
+public interface RangeTask {
+  /** Processes the indices from to to - 1. */
+  void run(int from, int to);
+}
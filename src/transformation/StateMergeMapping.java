@@ -1,32 +0,0 @@
-/* 
- * Editor for Automata
- * Bachelor Thesis
- * Raphael Bucher 2016 / 2017
- * */
-package transformation;
-
-import editor.State;
-
-public class StateMergeMapping {
-  private State oldAutomatState;
-  private State newAutomatState;
-  
-  public StateMergeMapping(State oldAutomatState, State newAutomatState) {
-    this.oldAutomatState = oldAutomatState;
-    this.newAutomatState = newAutomatState;
-  }
-  
-  // Getters and Setters
-  public State getOldAutomatState() {
-    return oldAutomatState;
-  }
-  public void setOldAutomatState(State oldAutomatState) {
-    this.oldAutomatState = oldAutomatState;
-  }
-  public State getNewAutomatState() {
-    return newAutomatState;
-  }
-  public void setNewAutomatState(State newAutomatState) {
-    this.newAutomatState = newAutomatState;
-  }
-}
\ No newline at end of file
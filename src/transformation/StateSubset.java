@@ -0,0 +1,72 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Immutable set of NEA states, a state of the DEA of the subset construction. Compact replacement of
+ * a HashSet<Integer>: the states are stored sorted in one int-array and the hash is computed once.
+ * The subset construction interns the subsets, every distinct subset is stored only once. */
+public class StateSubset {
+  /** Sorted ascending, no duplicates. */
+  private final int[] stateIndices;
+  private final int hash;
+  
+  /** @param stateIndices sorted ascending without duplicates. The array is not copied. */
+  public StateSubset(int[] stateIndices) {
+    this.stateIndices = stateIndices;
+    this.hash = Arrays.hashCode(stateIndices);
+  }
+  
+  /** Creates the subset of all set bits of the passed BitSet, the bits being stateIndices. */
+  public static StateSubset fromBitSet(BitSet stateIndices) {
+    int[] sortedStateIndices = new int[stateIndices.cardinality()];
+    
+    int i = 0;
+    for (int stateIndex = stateIndices.nextSetBit(0); stateIndex >= 0;
+        stateIndex = stateIndices.nextSetBit(stateIndex + 1)) {
+      sortedStateIndices[i++] = stateIndex;
+    }
+    
+    return new StateSubset(sortedStateIndices);
+  }
+  
+  public boolean contains(int stateIndex) {
+    return Arrays.binarySearch(stateIndices, stateIndex) >= 0;
+  }
+  
+  public int size() {
+    return stateIndices.length;
+  }
+  
+  /** Returns the i-th smallest stateIndex of the subset. */
+  public int get(int i) {
+    return stateIndices[i];
+  }
+  
+  @Override
+  public boolean equals(Object object) {
+    if (this == object)
+      return true;
+    
+    if (!(object instanceof StateSubset))
+      return false;
+    
+    StateSubset subset = (StateSubset) object;
+    return hash == subset.hash && Arrays.equals(stateIndices, subset.stateIndices);
+  }
+  
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+  
+  @Override
+  public String toString() {
+    return Arrays.toString(stateIndices);
+  }
+}
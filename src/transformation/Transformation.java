@@ -6,471 +6,397 @@
 package transformation;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
 
 import editor.Automat;
 import editor.EndState;
 import editor.StartEndState;
 import editor.StartState;
 import editor.State;
+import editor.Symbol;
 import editor.Transition;
 
 /** Used for the automata transformation algorithms
  * Epsilon-automata -> NEA -> DEA -> minimal DEA. */
 public class Transformation {
-  private static ArrayList<DEATableRow> toDEATableRows;
+  /** Hopcroft's partition-refinement on the DEA of the NEA, O(n * |alphabet| * log n). */
+  public static final int MINIMIZATION_HOPCROFT = 0;
+  /** The table-filling Algorithm of Abb. 2.3.1 in the script, O(n^2) bits of memory. Kept as reference. */
+  public static final int MINIMIZATION_TABLE_FILLING = 1;
+  /** Moore's refinement rounds in parallel on the common ForkJoinPool, for large DEAs on many cores. */
+  public static final int MINIMIZATION_PARALLEL_MOORE = 2;
+  /** Brzozowski's reverse, determinize, reverse, determinize on the NEA, without the DEA of the NEA. */
+  public static final int MINIMIZATION_BRZOZOWSKI = 3;
+  /** Brzozowski or Hopcroft, chosen by the shape of the NEA, see MinimizationBrzozowski.isPreferable().
+   * Falls back to Hopcroft if the DEA of the reversed NEA gets too large. The default. */
+  public static final int MINIMIZATION_AUTOMATIC = 4;
+  
+  /** The subset construction row by row on the calling thread. The default. */
+  public static final int DETERMINIZATION_SEQUENTIAL = 0;
+  /** The subset construction frontier by frontier on the common ForkJoinPool, same result. */
+  public static final int DETERMINIZATION_PARALLEL = 1;
   
   /** Returns a minimal DEA if the passed automat wasn't a minimal DEA already. Returns null
    * if the automat was already a minimal DEA. The passed automat isn't changed, one can
-   * pass the Editors current automat, this method copies the automat itself for the 
-   * Algorithm. */
+   * pass the Editors current automat. */
   public static Automat transformToMinimalDEA(Automat automat) {
-    // control-flag to keep track whether the passed automat was a min. DEA already
-    boolean wasMinDEA = true;
-    
-    // Create a DEA without unreachable states so we can start the minimal-DEA Algorithm
-    Automat automatDeepCopy = automat.copy();
-    Automat newDEA = Transformation.transformToDEA(automatDeepCopy);
-    if (!newDEA.equals(automatDeepCopy))
-      wasMinDEA = false; // automat wasn't a DEA
-    
-    if (Util.deleteUnreachableStates(newDEA, newDEA.getStateByStateIndex(0)))
-      wasMinDEA = false; // The automat had anreachable states and they were deleted
-    
-    Automat minimalDEA = getMinimalDEA(newDEA);
-    if (!minimalDEA.equals(newDEA))
-      wasMinDEA = false; // Automat had equivalent states to be reduced
-    
-    if (wasMinDEA)
-      return null;
-    else
-      return minimalDEA;
+    return transformToMinimalDEA(automat, MINIMIZATION_AUTOMATIC);
+  }
+  
+  /** Like transformToMinimalDEA(Automat), with the passed minimization-algorithm, e.g.
+   * Transformation.MINIMIZATION_TABLE_FILLING. All algorithms return the same minimal DEA. */
+  public static Automat transformToMinimalDEA(Automat automat, int minimizationAlgorithm) {
+    return transformToMinimalDEA(automat, minimizationAlgorithm, null);
+  }
+  
+  /** Like transformToMinimalDEA(Automat, int), the NEA -> DEA step runs within the passed budget.
+   * Pass null for no budget. Runs on the arrays of a NEATransitionTable and DEATransitionTable,
+   * the states and transitions of the editor are created for the minimal DEA only.
+   * @throws TransformationAbortedException if the budget ran out or was cancelled. */
+  public static Automat transformToMinimalDEA(Automat automat, int minimizationAlgorithm,
+      TransformationBudget budget) {
+    return transformToMinimalDEA(automat, minimizationAlgorithm, budget, DETERMINIZATION_SEQUENTIAL);
   }
   
-  /** Returns a new minimal DEA in case the passed automat wasn't a minimal DEA already. Returns the
-   * same Automat if it was already a minimal DEA (had no equivalent states to be merged by the
-   * reduction-Algorithm). */
-  private static Automat getMinimalDEA(Automat automat) {
-    // passed automat is a DEA without unreachable states
-    int statesCount = automat.getStates().size();
-    // true means the state-pair (by indices) is unequal (marked), false means their equal
-    boolean[][] equivalenceTable = new boolean[statesCount][statesCount];
+  /** Like transformToMinimalDEA(Automat, int, TransformationBudget), with the passed determinization
+   * for the subset constructions, e.g. Transformation.DETERMINIZATION_PARALLEL. */
+  public static Automat transformToMinimalDEA(Automat automat, int minimizationAlgorithm,
+      TransformationBudget budget, int determinization) {
+    ForkJoinPool pool = determinization == DETERMINIZATION_PARALLEL ? ForkJoinPool.commonPool() : null;
+    CompiledAutomat compiledAutomat = CompiledAutomat.compile(automat);
+    boolean wasDEA = compiledAutomat.isDEA();
+    
+    DEATransitionTable minimalDEA = null;
+    if (minimizationAlgorithm == MINIMIZATION_BRZOZOWSKI)
+      minimalDEA = MinimizationBrzozowski.minimalDEA(NEATransitionTable.fromAutomat(compiledAutomat), budget,
+          pool);
+    else if (minimizationAlgorithm == MINIMIZATION_AUTOMATIC && !wasDEA) {
+      // Falls back to the subset construction and Hopcroft if the reversed NEA blows up
+      NEATransitionTable nea = NEATransitionTable.fromAutomat(compiledAutomat);
+      if (MinimizationBrzozowski.isPreferable(nea))
+        minimalDEA = MinimizationBrzozowski.tryMinimalDEA(nea, budget, pool);
+    }
     
-    // The marking before the first iteration of the main loop
-    toMinDEABaseMarking(automat, equivalenceTable);
+    if (minimalDEA != null) {
+      // A DEA with as many states as the minimal DEA has no unreachable or equivalent states
+      if (wasDEA && minimalDEA.getStateCount() == compiledAutomat.getStateCount())
+        return null;
+      
+      return toMinDEAFromTable(minimalDEA, identityClasses(minimalDEA.getStateCount()),
+          minimalDEA.getStateCount());
+    }
     
-    // The iteration marking (2nd step of the Algorithm of Abb. 2.3.1)
-    ArrayList<Character> alphabet = Util.getAlphabet(automat);
-    while (toMinDEAIterationMarking(automat, equivalenceTable, alphabet));
+    if (!wasDEA) {
+      // The DEA of the NEA has no unreachable states, the subset construction reaches all its rows
+      DEATransitionTable dea = NEATransitionTable.fromAutomat(compiledAutomat).determinize(budget, pool);
+      int[] equivalenceClasses = equivalenceClasses(dea, minimizationAlgorithm);
+      
+      return toMinDEAFromTable(dea, equivalenceClasses, countClasses(equivalenceClasses));
+    }
     
-    // Return the same automat if no equivalent states were found (automat was already a minimal DEA)
-    if (!hasEquivalentStates(equivalenceTable))
-      return automat;
+    // The passed automat is a DEA, it's minimal already if all its states are reachable and
+    // no two of them are equivalent
+    DEATransitionTable dea = new DEATransitionTable(compiledAutomat);
+    int[] equivalenceClasses = equivalenceClasses(dea, minimizationAlgorithm);
+    BitSet reachableStates = compiledAutomat.reachableStates(compiledAutomat.getStartState());
+    
+    // Count the classes of the reachable states only, unreachable states are dropped
+    BitSet reachableClasses = new BitSet();
+    for (int state = reachableStates.nextSetBit(0); state >= 0; state = reachableStates.nextSetBit(state + 1)) {
+      reachableClasses.set(equivalenceClasses[state]);
+    }
+    
+    boolean allReachable = reachableStates.cardinality() == compiledAutomat.getStateCount();
+    if (reachableClasses.cardinality() == reachableStates.cardinality()) {
+      if (allReachable)
+        return null;
+      
+      // Nothing to merge, just delete the unreachable states
+      Automat automatDeepCopy = automat.copy();
+      Util.deleteUnreachableStates(automatDeepCopy, automatDeepCopy.getStateByStateIndex(0));
+      return automatDeepCopy;
+    }
     
     Automat newMinimalDEA = new Automat();
     // Map equivalent states to the same state of the newly created minimal DEA.
     // Instantiates and adds also the new States of the created minimal DEA
-    ArrayList<StateMergeMapping> mapping = toMinDEAStateMerging(automat, newMinimalDEA, equivalenceTable);
+    State[] mapping = toMinDEAStateMerging(compiledAutomat, reachableStates, newMinimalDEA,
+        equivalenceClasses, countClasses(equivalenceClasses));
     
     // Transfer the Transitions from the old Automat to the new minimal DEA, according to the
     // State-mapping
-    toMinDEATransferTransitions(automat, newMinimalDEA, mapping);
+    toMinDEATransferTransitions(automat, compiledAutomat, newMinimalDEA, mapping);
     
     return newMinimalDEA;
   }
   
-  private static void toMinDEATransferTransitions(Automat oldAutomat, 
-      Automat newMinimalDEA, ArrayList<StateMergeMapping> mapping) {
-    // Iterate over the old Automats transitions
-    for (int i = 0; i < oldAutomat.getTransitions().size(); i++) {
-      Transition oldTransition = oldAutomat.getTransitions().get(i);
-      
-      // Get the mapped states for the new Transition
-      State starting = getMappedState(oldTransition.getTransitionStart(), mapping);
-      State ending = getMappedState(oldTransition.getTransitionEnd(), mapping);
-      
-      // Create the Transition
-      Transition newTransition = new Transition(starting, ending);
-      newTransition.addSymbols(oldTransition.getSymbols());
-      
-      // Add the built Transition to the Automat
-      newMinimalDEA.addTransitionNoPaintingUpdate(newTransition);
-    }
+  /** Returns the equivalence-class of every state of the DEA, equivalent states share their class. */
+  private static int[] equivalenceClasses(DEATransitionTable deaTable, int minimizationAlgorithm) {
+    if (minimizationAlgorithm == MINIMIZATION_TABLE_FILLING)
+      return MinimizationTableFilling.equivalenceClasses(deaTable);
+    else if (minimizationAlgorithm == MINIMIZATION_PARALLEL_MOORE)
+      return MinimizationMoore.equivalenceClasses(deaTable);
+    else
+      return MinimizationHopcroft.equivalenceClasses(deaTable);
   }
   
-  /** Traverses the passed mapping-list and returns the mapped state of the passed oldAutomatState.
-   * Returns null if the state was not in the list. */
-  private static State getMappedState(State oldAutomatState, ArrayList<StateMergeMapping> mapping) {
-    for (int i = 0; i < mapping.size(); i++) {
-      if (oldAutomatState.equals(mapping.get(i).getOldAutomatState()))
-        return mapping.get(i).getNewAutomatState();
+  private static int countClasses(int[] equivalenceClasses) {
+    int classCount = 0;
+    for (int i = 0; i < equivalenceClasses.length; i++) {
+      classCount = Math.max(classCount, equivalenceClasses[i] + 1);
     }
     
-    return null;
+    return classCount;
   }
   
-  /** Creates the mapping of the states from the old to the new minimal DEA. */
-  private static ArrayList<StateMergeMapping> toMinDEAStateMerging(Automat oldAutomat,
-      Automat newMinimalDEA, boolean[][] equivalenceTable) {
-    ArrayList<StateMergeMapping> mapping = new ArrayList<StateMergeMapping>();
-    
-    // Map the Start-state
-    State startState = oldAutomat.getStateByStateIndex(0);
-    if (startState.isEndState()) {
-      newMinimalDEA.addState(new StartEndState(0, 1, 1), false);
-    } else {
-      newMinimalDEA.addState(new StartState(0, 1, 1), false);
+  private static int[] identityClasses(int stateCount) {
+    int[] equivalenceClasses = new int[stateCount];
+    for (int i = 0; i < stateCount; i++) {
+      equivalenceClasses[i] = i;
     }
-    mapping.add(new StateMergeMapping(oldAutomat.getStateByStateIndex(0), newMinimalDEA.getStateByStateIndex(0)));
     
-    // Iterate over all states except the Start-state
-    for (int i = 0; i < oldAutomat.getStates().size(); i++) {
-      State state = oldAutomat.getStates().get(i);
-      // Skip the start-state
-      if (state.getStateIndex() == 0)
+    return equivalenceClasses;
+  }
+  
+  /** Creates the minimal DEA of a DEA built by a subset construction, with one state per
+   * equivalence-class. The classes get their stateIndices in the order of their first state, the
+   * start-states class 0. Every state reaching other states gets one transition per reached state,
+   * with the symbols in the order of the columns, in the order the reached states are first read.
+   * Only the first state of every class is used, the other states of a class have the same
+   * transitions. With one class per state it creates the DEA itself. */
+  private static Automat toMinDEAFromTable(DEATransitionTable dea, int[] equivalenceClasses, int classCount) {
+    Automat newMinimalDEA = new Automat();
+    State[] newStateOfClass = new State[classCount];
+    int[] firstStateOfClass = new int[classCount];
+    int newStateIndex = 0;
+    
+    for (int state = 0; state < dea.getStateCount(); state++) {
+      int equivalenceClass = equivalenceClasses[state];
+      if (newStateOfClass[equivalenceClass] != null)
         continue;
       
-      // Add the state to the mapping
-      State newState = getNewEquivalentState(state, oldAutomat, newMinimalDEA, mapping, equivalenceTable);
-      mapping.add(new StateMergeMapping(state, newState));
+      State newState;
+      if (newStateIndex == 0)
+        newState = dea.isFinal(state) ? new StartEndState(0, 1, 1) : new StartState(0, 1, 1);
+      else
+        newState = dea.isFinal(state) ? new EndState(newStateIndex, 1, 1) : new State(newStateIndex, 1, 1);
       
-      // Add the State to the new minimal DEA
-      if (newMinimalDEA.getStateByStateIndex(newState.getStateIndex()) == null)
-        newMinimalDEA.addState(newState, false);
+      newMinimalDEA.addState(newState, false);
+      newStateOfClass[equivalenceClass] = newState;
+      firstStateOfClass[newStateIndex++] = state;
     }
     
-    return mapping;
-  }
-  
-  private static State getNewEquivalentState(State oldState, Automat oldAutomat, Automat newMinimalDEA,
-      ArrayList<StateMergeMapping> mapping, boolean[][] equivalenceTable) {
-    // Search for an equivalent state in the mapping-list
-    for (int i = 0; i < mapping.size(); i++) {
-      // Is the state-pair unmarked? (equivalent)
-      if (!isStatePairMarked(oldState, mapping.get(i).getOldAutomatState(), equivalenceTable, oldAutomat)) {
-        return mapping.get(i).getNewAutomatState();
+    // One transition per reached state, with the symbols of all columns reaching it. The reached
+    // states of a row are stamped with the row + 1
+    int alphabetSize = dea.getAlphabetSize();
+    int[] stamps = new int[dea.getStateCount()];
+    Transition[] transitionToState = new Transition[dea.getStateCount()];
+    Transition[] rowTransitions = new Transition[alphabetSize];
+    for (int i = 0; i < newStateIndex; i++) {
+      int state = firstStateOfClass[i];
+      int transitionCount = 0;
+      
+      for (int column = 0; column < alphabetSize; column++) {
+        int target = dea.next(state, column);
+        
+        if (stamps[target] != state + 1) {
+          stamps[target] = state + 1;
+          transitionToState[target] = new Transition(newStateOfClass[equivalenceClasses[state]],
+              newStateOfClass[equivalenceClasses[target]]);
+          rowTransitions[transitionCount++] = transitionToState[target];
+        }
+        
+        transitionToState[target].addSymbol(dea.getSymbol(column), false);
       }
-    }
-    
-    // The state isn't equivalent to any other state that is already in the mapping-list
-    if (oldState.isEndState())
-      return new EndState(newMinimalDEA.findNewStateIndex(), 1, 1);
-    else
-      return new State(newMinimalDEA.findNewStateIndex(), 1, 1);
-  }
-  
-  private static boolean hasEquivalentStates(boolean[][] equivalenceTable) {
-    for (int i = 0; i < equivalenceTable.length - 1; i++) {
-      for (int j = i + 1; j < equivalenceTable.length; j++) {
-        if (!equivalenceTable[i][j])
-          return true;
+      
+      // Merges the transitions to reached states of the same class
+      for (int j = 0; j < transitionCount; j++) {
+        newMinimalDEA.addTransitionNoPaintingUpdate(rowTransitions[j]);
       }
     }
     
-    return false;
+    return newMinimalDEA;
   }
   
-  /** Performas the marking of MinDEATableElements-Array in the iteration loop of the Algorithm of
-   * Abb. 2.3.1. in the Script. */
-  private static boolean toMinDEAIterationMarking(Automat automat, boolean[][] equivalenceTable,
-      ArrayList<Character> alphabet) {
-    // Control-flag that is used for algorithm-termination
-    boolean markedSomething = false;
-    // The ending-States that were reached by reading the same Symbol
-    State reachedFromP;
-    State reachedFromQ;
-    
-    // i: Row
-    for (int i = 0; i < equivalenceTable.length - 1; i++) {
-      // j: Column
-      for (int j = i + 1; j < equivalenceTable.length; j++) {
-        // Consider only unmarked State-pairs
-        if (!equivalenceTable[i][j]) {
-          State p = automat.getStates().get(i);
-          State q = automat.getStates().get(j);
-          
-          // Iterate over the alphabet
-          for (int k = 0; k < alphabet.size(); k++) {
-            // Get a list of all Transitions (with their Ending-States) that can be reached
-            // by reading the passed Symbol once from the passed State. Since the base automat
-            // must be a DEA by constraints, only one Transitions will be returned here
-            reachedFromP = Transition.getTransitionsByStartStateAndSymbol(p, alphabet.get(k),
-                automat.getTransitions()).get(0).getTransitionEnd();
-            reachedFromQ = Transition.getTransitionsByStartStateAndSymbol(q, alphabet.get(k),
-                automat.getTransitions()).get(0).getTransitionEnd();
-            
-            if (isStatePairMarked(reachedFromP, reachedFromQ, equivalenceTable, automat)) {
-              // Mark the pair (p, q)
-              equivalenceTable[i][j] = true;  
-              markedSomething = true;
-            }
-          }
-        }
-      }
+  private static void toMinDEATransferTransitions(Automat oldAutomat, CompiledAutomat compiledDEA,
+      Automat newMinimalDEA, State[] mapping) {
+    // Iterate over the old Automats transitions
+    for (int i = 0; i < oldAutomat.getTransitions().size(); i++) {
+      Transition oldTransition = oldAutomat.getTransitions().get(i);
+      
+      // Get the mapped states for the new Transition, unreachable states aren't mapped
+      State starting = mapping[compiledDEA.getState(oldTransition.getTransitionStart().getStateIndex())];
+      State ending = mapping[compiledDEA.getState(oldTransition.getTransitionEnd().getStateIndex())];
+      if (starting == null)
+        continue;
+      
+      // Create the Transition
+      Transition newTransition = new Transition(starting, ending);
+      newTransition.addSymbols(oldTransition.getSymbols());
+      
+      // Add the built Transition to the Automat
+      newMinimalDEA.addTransitionNoPaintingUpdate(newTransition);
     }
-    
-    return markedSomething;
   }
   
-  private static boolean isStatePairMarked(State p, State q,
-      boolean[][] equivalenceTable, Automat automat) {
-    int indexP = automat.getStates().indexOf(p);
-    int indexQ = automat.getStates().indexOf(q);
+  /** Creates the mapping of the states from the old to the new minimal DEA, indexed by the dense
+   * states of the old DEA. Every equivalence-class of a reachable state gets one new state, the
+   * start-states class the new start-state, the others new stateIndices in the order of the old
+   * states-list. Unreachable states are mapped to null. */
+  private static State[] toMinDEAStateMerging(CompiledAutomat compiledDEA, BitSet reachableStates,
+      Automat newMinimalDEA, int[] equivalenceClasses, int classCount) {
+    State[] mapping = new State[compiledDEA.getStateCount()];
+    State[] newStateOfClass = new State[classCount];
     
-    // Both orders of the states need to be checked since (p, q) is 
-    // the same like (q, p) for the Algorithm
-    return equivalenceTable[indexP][indexQ] || equivalenceTable[indexQ][indexP];
-  }
-  
-  /** Performas the marking of MinDEATableElements-Array in the first step of the Algorithm of Abb. 2.3.1.
-   * in the Script. */
-  private static void toMinDEABaseMarking(Automat automat, boolean[][] equivalenceTable) {
-    // i: Row
-    for (int i = 0; i < equivalenceTable.length - 1; i++) {
-      // j: Column
-      for (int j = i + 1; j < equivalenceTable.length; j++) {
-        State p = automat.getStates().get(i);
-        State q = automat.getStates().get(j);
-        
-        // Is one state an EndState and the other not? If so, mark them
-        if (p.isEndState() && !q.isEndState() || !p.isEndState() && q.isEndState())
-          equivalenceTable[i][j] = true;
-      }
-    }
-  }
-  
-  // Debugging
-  public static void printEquiTable(boolean[][] equivalenceTable, Automat automat) {
-    for (int i = 0; i < equivalenceTable.length; i++) {
-      System.out.println("ArrayListIndex " + i + " has stateIndex " + automat.getStates().get(i).getStateIndex());
+    // Map the Start-state
+    int startState = compiledDEA.getStartState();
+    if (compiledDEA.isFinal(startState)) {
+      newMinimalDEA.addState(new StartEndState(0, 1, 1), false);
+    } else {
+      newMinimalDEA.addState(new StartState(0, 1, 1), false);
     }
-    System.out.println("--------------------------------");
+    newStateOfClass[equivalenceClasses[startState]] = newMinimalDEA.getStateByStateIndex(0);
     
-    for (int i = 0; i < equivalenceTable.length; i++) {
-      for (int j = 0; j < equivalenceTable.length; j++) {
-        System.out.print("" + automat.getStates().get(i).getStateIndex() +
-            " " + automat.getStates().get(j).getStateIndex() + " " + equivalenceTable[i][j] + "   ");
+    // Iterate over all reachable states, the start-states class is mapped already
+    for (int i = reachableStates.nextSetBit(0); i >= 0; i = reachableStates.nextSetBit(i + 1)) {
+      State newState = newStateOfClass[equivalenceClasses[i]];
+      
+      // The state isn't equivalent to any other state that is already mapped
+      if (newState == null) {
+        if (compiledDEA.isFinal(i))
+          newState = new EndState(newMinimalDEA.findNewStateIndex(), 1, 1);
+        else
+          newState = new State(newMinimalDEA.findNewStateIndex(), 1, 1);
+        
+        // Add the State to the new minimal DEA
+        newMinimalDEA.addState(newState, false);
+        newStateOfClass[equivalenceClasses[i]] = newState;
       }
-      System.out.println();
+      
+      mapping[i] = newState;
     }
     
-    System.out.println("--------------------------------");
-    System.out.println();
+    return mapping;
   }
   
   /** Creates a DEA from the passed automat which accepts the same language and returns this automat.
    * In case the passed automat is a DEA already, this method returns the passed reference. */
   public static Automat transformToDEA(Automat automat) {
-    Automat newDEA = new Automat();
-    
-    if (Util.isDEA(automat))
-      return automat;
-    
-    // If the Automat is not a NEA but just an Epsilon-Automat, transform the automat into a NEA first.
-    // The called method decides itself whether a transformation is needed.
-    transformToNEA(automat);
-    
-    // automat can only be a NEA at this stage
-    ArrayList<Character> alphabet = Util.getAlphabet(automat);
-    Util.sortCharacters(alphabet);
-
-    toDEATableRows = new ArrayList<DEATableRow>();
-    
-    // Add a new Row with the Start state
-    Set<Integer> startState = new HashSet<Integer>();
-    startState.add(0);
-    addDEATableRow(startState, alphabet);
-    
-    // Computes the whole Table for the DEA
-    toDEAComputeTable(automat, alphabet);
-    
-    // Create the States for the new DEA for each Row (State) of the Table and add them to the list
-    // of the newly created DEA
-    toDEACreateNewStates(automat, newDEA);
-    
-    // Create the transitions of the new DEA
-    toDEACreateTransitions(newDEA);
-
-    return newDEA;
-  }
-  
-  private static void toDEACreateTransitions(Automat newDEA) {
-    for (int i = 0; i < toDEATableRows.size(); i++) {
-      toDEATableRows.get(i).createTransitions(newDEA, toDEATableRows);
-    }
+    return transformToDEA(automat, null);
   }
   
-  private static void toDEACreateNewStates(Automat originalNEA, Automat newDEA) {
-    for (int i = 0; i < toDEATableRows.size(); i++) {
-      toDEATableRows.get(i).createNewState(originalNEA, i);
-      
-      // Add the newly instantiated state to the DEA
-      newDEA.addState(toDEATableRows.get(i).getNewState(), false);
-    }
+  /** Like transformToDEA(Automat), the subset construction runs within the passed budget and
+   * reports its progress to the budgets listener. Pass null for no budget. The passed automat isn't
+   * changed, the subset construction runs on a NEATransitionTable of it.
+   * @throws TransformationAbortedException if the budget ran out or was cancelled. */
+  public static Automat transformToDEA(Automat automat, TransformationBudget budget) {
+    return transformToDEA(automat, budget, DETERMINIZATION_SEQUENTIAL);
   }
   
-  private static void toDEAComputeTable(Automat automat, ArrayList<Character> alphabet) {
-    int toDEATableRowsIndex = 0;
-    
-    while (true) {
-      if (toDEATableRowsIndex < toDEATableRows.size()) {
-        toDEATableRows.get(toDEATableRowsIndex).computeRow(automat, alphabet);
-        toDEATableRowsIndex++;
-      } else
-        break;
-    }
-  }
-  
-  /** Checks whether the Set of states is already present in the list. If not, creates a new
-   * Row with this set of states. */
-  public static void addDEATableRow(Set<Integer> states, ArrayList<Character> alphabet) {
-    // Check if the Set of states is already present in the Row-List
-    boolean addStates = true;
-    for (int i = 0; i < toDEATableRows.size(); i++) {
-      if (states.equals(toDEATableRows.get(i).getStates())) {
-        addStates = false;
-        break;
-      }
-    }
-    if (addStates)
-      toDEATableRows.add(new DEATableRow(states, alphabet));
-  }
-
-  /** Returns a HashSet of all State-indices that can be reached by reading the symbol
-   * from all the passed startingStates. */
-  public static Set<Integer> toDEAReachedStates(Set<Integer> startingStates, Character symbol,
-      Automat automat) {
-    Set<Integer> reachedStates = new HashSet<Integer>();
+  /** Like transformToDEA(Automat, TransformationBudget), with the passed determinization, e.g.
+   * Transformation.DETERMINIZATION_PARALLEL. All determinizations return the same DEA. */
+  public static Automat transformToDEA(Automat automat, TransformationBudget budget, int determinization) {
+    if (Util.isDEA(automat))
+      return automat;
     
-    // Iterate over the passed states
-    Iterator<Integer> iterator = startingStates.iterator();
-    while (iterator.hasNext()) {
-      State state = automat.getStateByStateIndex(iterator.next());
-      
-      ArrayList<Transition> transitions = Transition.getTransitionsByStartStateAndSymbol(
-          state, symbol, automat.getTransitions());
-      
-      for (int i = 0; i < transitions.size(); i++) {
-        reachedStates.add(transitions.get(i).getTransitionEnd().getStateIndex());
-      }
-    }
+    // The subset construction on the arrays of the NEA, Epsilon-Transitions removed. The states and
+    // transitions of the editor are created for the DEA only
+    NEATransitionTable nea = NEATransitionTable.fromAutomat(CompiledAutomat.compile(automat));
+    DEATransitionTable dea = nea.determinize(budget,
+        determinization == DETERMINIZATION_PARALLEL ? ForkJoinPool.commonPool() : null);
     
-    return reachedStates;
+    return toMinDEAFromTable(dea, identityClasses(dea.getStateCount()), dea.getStateCount());
   }
   
-  
   /** Transforms the passed automat into a NEA. In case the passed automat is a NEA already,
-   * this method does nothing. */
+   * this method does nothing. Doesn't compute any painting information, callers update the
+   * painting or layout the automat themselves. */
   public static void transformToNEA(Automat automat) {
-    Automat originalAutomat = automat.copy();
-    
     if (Util.isNEA(automat))
       return;
     
-    // Change states that can reach End-States with a combination of only epsilon-transitions
-    // to End-States as well.
-    toNEANewEndStates(automat);
+    // The Epsilon-closures of all states, computed once on a snapshot of the original automat
+    EpsilonClosure epsilonClosure = new EpsilonClosure(CompiledAutomat.compile(automat));
     
     // Remove all transitions and let them build by the step 3 of the Algorithm in Abbildung 2.2.6
     automat.deleteAllTransitions();
-    toNEARemoveEpsilonTransitions(originalAutomat, automat);
+    
+    // Change states that can reach End-States with a combination of only epsilon-transitions
+    // to End-States as well.
+    toNEANewEndStates(automat, epsilonClosure);
+    
+    toNEARemoveEpsilonTransitions(automat, epsilonClosure);
   }
   
   /** Step 3 from Abbildung 2.2.6 in the script.
-   * Removes all Epsilon Transitions from the Automat and replaces Epsilon-chains with a 
-   * non-Epsilon-symbol in the end with a new transition according to the script. */
-  private static void toNEARemoveEpsilonTransitions(Automat originalAutomat, Automat builtAutomat) {
-    for (int i = 0; i < originalAutomat.getStates().size(); i++) {
-      State state = originalAutomat.getStates().get(i);
-      
-      // Gather all incoming transitions
-      ArrayList<Transition> incomingTransitions = Transition.getTransitionsByEndState(
-          state, originalAutomat.getTransitions());
-      
-      // filter out pure Epsilon-Transitions (Transitions with an Epsilon-Symbol only)
-      incomingTransitions = Transition.removeEpsilonTransitions(incomingTransitions);
+   * Replaces Epsilon-chains with a non-Epsilon-symbol in the end with a new transition: every state
+   * gets the non-Epsilon-transitions of all states of its Epsilon-closure. The symbols are
+   * collected per target first, so every new transition is added once with all its symbols. */
+  private static void toNEARemoveEpsilonTransitions(Automat builtAutomat, EpsilonClosure epsilonClosure) {
+    CompiledAutomat compiledAutomat = epsilonClosure.getCompiledAutomat();
+    int stateCount = compiledAutomat.getStateCount();
+    
+    // Symbols read to each target from the current state, and the targets in order of discovery
+    long[] targetSymbolMasks = new long[stateCount];
+    int[] targets = new int[stateCount];
+    
+    for (int state = 0; state < stateCount; state++) {
+      int targetCount = 0;
+      BitSet closure = epsilonClosure.getClosure(state);
       
-      // Call the recursive backwards EpsilonTransition searchAlgorithm on all starting-states
-      // from the incomingLineTransitions-list
-      for (int j = 0; j < incomingTransitions.size(); j++) {
-        State.unmarkStates(originalAutomat.getStates());
-        ArrayList<State> markedStates = new ArrayList<State>();
-        State transitionStart = incomingTransitions.get(j).getTransitionStart();
-        markBackwardsEpsilonTransitionStates(originalAutomat, transitionStart, markedStates);
-        
-        // Build the transitions and add them to the builtAutomat
-        for (int k = 0; k < markedStates.size(); k++) {
-          // Built the transition on the states of the builtAutomat and add it
-          Transition newTransition = new Transition(
-              builtAutomat.getStateByStateIndex(markedStates.get(k).getStateIndex()),
-              builtAutomat.getStateByStateIndex(state.getStateIndex()));
-          newTransition.addSymbols(incomingTransitions.get(j).getSymbols());
+      for (int reached = closure.nextSetBit(0); reached >= 0; reached = closure.nextSetBit(reached + 1)) {
+        for (int edge = compiledAutomat.edgeStart(reached); edge < compiledAutomat.edgeEnd(reached); edge++) {
+          // Ignore Epsilon-Symbols, pure Epsilon-Transitions are left out completely
+          long symbolMask = compiledAutomat.edgeSymbolMask(edge) & ~Symbol.EPSILON_MASK;
+          if (symbolMask == 0)
+            continue;
           
-          // Ignore Epsilon-Symbols. Can't delete since their needed for the rest of the computation
-          newTransition.removeSymbol('\u03B5', false);
+          int target = compiledAutomat.edgeTarget(edge);
+          if (targetSymbolMasks[target] == 0)
+            targets[targetCount++] = target;
           
-          // Add the transition
-          builtAutomat.addTransition(newTransition, false);
+          targetSymbolMasks[target] |= symbolMask;
         }
       }
+      
+      // Build the transitions on the states of the builtAutomat and add them
+      State transitionStart = builtAutomat.getStateByStateIndex(compiledAutomat.getStateIndex(state));
+      for (int i = 0; i < targetCount; i++) {
+        Transition newTransition = new Transition(transitionStart,
+            builtAutomat.getStateByStateIndex(compiledAutomat.getStateIndex(targets[i])));
+        
+        ArrayList<Character> symbols = Symbol.fromMask(targetSymbolMasks[targets[i]]);
+        for (int j = 0; j < symbols.size(); j++) {
+          newTransition.addSymbol(symbols.get(j), false);
+        }
+        
+        builtAutomat.addTransitionNoPaintingUpdate(newTransition);
+        targetSymbolMasks[targets[i]] = 0;
+      }
     }
   }
   
   /** Step 2 from Abbildung 2.2.6 in the script.
    * Change states that can reach End-States with a combination of only epsilon-transitions
    * to End-States as well. */
-  private static void toNEANewEndStates(Automat automat) {
-    ArrayList<State> markedStates = new ArrayList<State>();
-    
-    // Iterates over all end-states
-    for (int i = 0; i < automat.getStates().size(); i++) {
-      State state = automat.getStates().get(i);
-      if (state instanceof EndState || state instanceof StartEndState) {
-        // Get a list of all states that are backwards (counter-direction of the transition, against
-        // its arrow) reachable by only Epsilon-Transitions
-        State.unmarkStates(automat.getStates());
-        markBackwardsEpsilonTransitionStates(automat, state, markedStates);
-      }
-    }
+  private static void toNEANewEndStates(Automat automat, EpsilonClosure epsilonClosure) {
+    CompiledAutomat compiledAutomat = epsilonClosure.getCompiledAutomat();
     
     // Replace all:
     // normal State -> EndState
     // StartState -> StartEndState
     // Leave EndStates and StartEndStates untouched
-    for (int i = 0; i < markedStates.size(); i++) {
-      if (markedStates.get(i).getType() == State.START_STATE)
-        automat.changeStateType(markedStates.get(i), State.START_END_STATE);
+    for (int state = 0; state < compiledAutomat.getStateCount(); state++) {
+      if (compiledAutomat.isFinal(state) || !epsilonClosure.reachesFinalState(state))
+        continue;
       
-      if (markedStates.get(i).getType() == State.STATE)
-        automat.changeStateType(markedStates.get(i), State.END_STATE);
-    }
-  }
-  
-  /** Recursive method that calls itself for all unmarked neighbor-states of that passed state that
-   * can be reached backwards by one Epsilon-Transition. Adds them to the passed ArrayList markedStates.
-   * Contains the state on which this method is called as well. */
-  private static void markBackwardsEpsilonTransitionStates(Automat automat, State state,
-      ArrayList<State> markedStates) {
-    state.setMarked(true);
-    
-    if (!markedStates.contains(state))
-      markedStates.add(state);
-    
-    // Get all backwards reachable Neighbor states by one Epsilon-Transition
-    ArrayList<Transition> incomingTransitions = Transition.getTransitionsByEndState(state,
-        automat.getTransitions());
-    
-    for (int i = 0; i < incomingTransitions.size(); i++) {
-      // Consider only Epsilon-Transitions
-      if (incomingTransitions.get(i).isEpsilonTransition()) {
+      State markedState = automat.getStateByStateIndex(compiledAutomat.getStateIndex(state));
+      if (markedState.getType() == State.START_STATE)
+        automat.changeStateType(markedState, State.START_END_STATE);
       
-        State transitionStart = incomingTransitions.get(i).getTransitionStart();
-        if (!transitionStart.isMarked()) {
-          markBackwardsEpsilonTransitionStates(automat, transitionStart, markedStates);
-        }
-      }
+      if (markedState.getType() == State.STATE)
+        automat.changeStateType(markedState, State.END_STATE);
     }
   }
 }
\ No newline at end of file
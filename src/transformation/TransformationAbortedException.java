@@ -0,0 +1,29 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Thrown by a transformation that ran out of its TransformationBudget or was cancelled. The
+ * passed automat is left untouched, no partial result is returned. */
+public class TransformationAbortedException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+  
+  public static final int CANCELLED = 0;
+  public static final int STATE_LIMIT_EXCEEDED = 1;
+  public static final int MEMORY_LIMIT_EXCEEDED = 2;
+  
+  private final int reason;
+  
+  public TransformationAbortedException(int reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+  
+  // Getters
+  /** One of CANCELLED, STATE_LIMIT_EXCEEDED or MEMORY_LIMIT_EXCEEDED. */
+  public int getReason() {
+    return reason;
+  }
+}
@@ -0,0 +1,97 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Limits of one NEA -> DEA transformation: the number of states of the DEA and the estimated
+ * memory of the table of the subset construction. Can be cancelled from any thread, the
+ * transformation checks the budget after every computed row and throws a
+ * TransformationAbortedException. Reports the progress to the listener every
+ * PROGRESS_INTERVAL_ROWS rows and once at the end. */
+public class TransformationBudget {
+  /** Pass as a limit to not limit it. */
+  public static final int UNLIMITED = -1;
+  public static final int PROGRESS_INTERVAL_ROWS = 256;
+  
+  private final int maxStates;
+  private final long maxTableBytes;
+  private volatile boolean cancelled;
+  private TransformationProgressListener progressListener;
+  /** The budget this one was derived from by limitStates(), null if none. Cancelling the parent
+   * cancels this budget as well. */
+  private final TransformationBudget parent;
+  
+  /** @param maxStates The maximal number of states of the DEA, or UNLIMITED.
+   * @param maxTableBytes The maximal estimated size of the table of the DEA in bytes, or UNLIMITED. */
+  public TransformationBudget(int maxStates, long maxTableBytes) {
+    this(maxStates, maxTableBytes, null);
+  }
+  
+  private TransformationBudget(int maxStates, long maxTableBytes, TransformationBudget parent) {
+    this.maxStates = maxStates;
+    this.maxTableBytes = maxTableBytes;
+    this.parent = parent;
+  }
+  
+  /** Returns a budget for a trial run with at most maxStates states and the limits of the passed
+   * budget, which can be null. The trial is cancelled with the passed budget and reports to its
+   * listener. */
+  static TransformationBudget limitStates(TransformationBudget budget, int maxStates) {
+    if (budget == null)
+      return new TransformationBudget(maxStates, UNLIMITED);
+    
+    int limitedMaxStates = budget.maxStates == UNLIMITED ? maxStates : Math.min(maxStates, budget.maxStates);
+    TransformationBudget limitedBudget = new TransformationBudget(limitedMaxStates, budget.maxTableBytes, budget);
+    limitedBudget.progressListener = budget.progressListener;
+    return limitedBudget;
+  }
+  
+  /** Asks the transformation to stop, it does so after the row it computes at the moment. */
+  public void cancel() {
+    cancelled = true;
+  }
+  
+  /** Called by the subset construction after each computed row. Throws if the transformation was cancelled,
+   * its thread interrupted or a limit exceeded.
+   * @param computedRows The rows computed so far, the rows after them are pending. */
+  void checkRow(int discoveredRows, int computedRows, long estimatedTableBytes) {
+    checkCancelled();
+    
+    if (maxStates != UNLIMITED && discoveredRows > maxStates)
+      throw new TransformationAbortedException(TransformationAbortedException.STATE_LIMIT_EXCEEDED,
+          "The DEA has more than " + maxStates + " states");
+    
+    if (maxTableBytes != UNLIMITED && estimatedTableBytes > maxTableBytes)
+      throw new TransformationAbortedException(TransformationAbortedException.MEMORY_LIMIT_EXCEEDED,
+          "The table needs more than " + maxTableBytes / (1024 * 1024) + " MB");
+    
+    if (progressListener != null && (computedRows % PROGRESS_INTERVAL_ROWS == 0 || computedRows == discoveredRows))
+      progressListener.progress(discoveredRows, discoveredRows - computedRows);
+  }
+  
+  /** Throws if the transformation was cancelled or its thread interrupted. */
+  void checkCancelled() {
+    if (isCancelled() || Thread.currentThread().isInterrupted())
+      throw new TransformationAbortedException(TransformationAbortedException.CANCELLED,
+          "Transformation cancelled");
+  }
+  
+  // Setters and Getters
+  public boolean isCancelled() {
+    return cancelled || (parent != null && parent.isCancelled());
+  }
+  
+  public int getMaxStates() {
+    return maxStates;
+  }
+  
+  public long getMaxTableBytes() {
+    return maxTableBytes;
+  }
+  
+  public void setProgressListener(TransformationProgressListener progressListener) {
+    this.progressListener = progressListener;
+  }
+}
@@ -0,0 +1,14 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Gets periodic progress reports of a running NEA -> DEA transformation. Called on the thread
+ * that runs the transformation. */
+public interface TransformationProgressListener {
+  /** @param discoveredStates The rows (states of the DEA) found so far.
+   * @param pendingStates The discovered rows that are not computed yet. */
+  void progress(int discoveredStates, int pendingStates);
+}
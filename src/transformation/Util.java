@@ -6,6 +6,7 @@
 package transformation;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -38,23 +39,8 @@ public class Util {
     if (!isNEA(automat))
       return false;
     
-    // Grab the automats alphabet
-    ArrayList<Character> alphabet = getAlphabet(automat);
-    
-    // Iterate over all states
-    for (int i = 0; i < automat.getStates().size(); i++) {
-      State state = automat.getStates().get(i);
-      
-      // Grab all symbols of all outgoing Transitions from this state, duplicates enabled by default
-      ArrayList<Character> outgoingSymbols = getStateOutgoingSymbolsDuplicates(automat, state);
-     
-      for (int j = 0; j < alphabet.size(); j++) {
-        if (Collections.frequency(outgoingSymbols, alphabet.get(j)) != 1)
-          return false;
-      }
-    }
-    
-    return true;
+    // Every symbol of the alphabet has to be on exactly one outgoing Transition of every state
+    return CompiledAutomat.compile(automat).isDEA();
   }
   
   /** Iterates over all the automats transitions that have the passed state as a startState and
@@ -65,7 +51,7 @@ public class Util {
     
     // Grab all outgoing transitions from the current state
     ArrayList<Transition> outgoingTransitions =
-        Transition.getTransitionsByStartState(state, automat.getTransitions());
+        Transition.getTransitionsByStartState(state, automat);
     
     // Put all symbols of all outgoing Transitions into an ArrayList, duplications enabled by default
     for (int i = 0; i < outgoingTransitions.size(); i++) {
@@ -92,20 +78,21 @@ public class Util {
     return symbols;
   }
   
-  /** @return All symbols that the automat contains. Also contains Epsilon in case its present. */
+  /** @return All symbols that the automat contains, ordered digits, letters, Epsilon. Also contains
+   * Epsilon in case its present. */
   public static ArrayList<Character> getAlphabet(Automat automat) {
-    ArrayList<Character> symbols = new ArrayList<Character>();
+    return Symbol.fromMask(getAlphabetMask(automat));
+  }
+  
+  /** @return All symbols that the automat contains as a symbol-mask (see Symbol.toMask()). */
+  public static long getAlphabetMask(Automat automat) {
+    long alphabetMask = 0L;
     
     for (int i = 0; i < automat.getTransitions().size(); i++) {
-      ArrayList<Symbol> transitionSymbols = automat.getTransitions().get(i).getSymbols();
-      
-      for (int j = 0; j < transitionSymbols.size(); j++) {
-        if (!symbols.contains(transitionSymbols.get(j).getSymbol()))
-          symbols.add(new Character(transitionSymbols.get(j).getSymbol()));
-      }
+      alphabetMask |= automat.getTransitions().get(i).getSymbolMask();
     }
     
-    return symbols;
+    return alphabetMask;
   }
   
   /** A String that contains the Type-3 Grammar with L(G) = A(E). */
@@ -174,7 +161,7 @@ public class Util {
     if (state.getStateIndex() == 0 && (state instanceof EndState || state instanceof StartEndState) )
       propositions.add("\u03B5");
     
-    ArrayList<Transition> stateTransitions = Transition.getTransitionsByStartState(state, automat.getTransitions());
+    ArrayList<Transition> stateTransitions = Transition.getTransitionsByStartState(state, automat);
     for (int i = 0; i < stateTransitions.size(); i++) {
       Transition transition = stateTransitions.get(i);
       ArrayList<Symbol> symbols = transition.getSymbols();
@@ -338,13 +325,17 @@ public class Util {
     // Append the definition of the function
     info += getTransferFunctionDefinition(automat);
     
+    // DEAs are listed from their transfer-function table
+    if (isDEA)
+      return appendTransferFunctionDEA(automat, info);
+    
     // Work on a copy of the automats original states-ArrayList
     ArrayList<State> sortedStates = copyStates(automat.getStates());
     sortStates(sortedStates);
 
     for (int i = 0; i < sortedStates.size(); i++) {
       ArrayList<Transition> outgoingTransitions = Transition.getTransitionsByStartState(
-          sortedStates.get(i), automat.getTransitions());
+          sortedStates.get(i), automat);
       
       // Store all reached stateIndices from a read Symbol
       Set<StatesOfSymbol> reachedStatesPerSymbol = new HashSet<StatesOfSymbol>();
@@ -385,6 +376,32 @@ public class Util {
     return info;
   }
   
+  /** Appends the String representation of a DEAs transfer function to the passed String, one
+   * table-lookup per state and symbol. The symbols are ordered per state. */
+  private static String appendTransferFunctionDEA(Automat automat, String info) {
+    DEATransitionTable deaTable = new DEATransitionTable(CompiledAutomat.compile(automat));
+    CompiledAutomat compiledDEA = deaTable.getCompiledDEA();
+    
+    // Work on a copy of the automats original states-ArrayList
+    ArrayList<State> sortedStates = copyStates(automat.getStates());
+    sortStates(sortedStates);
+    
+    for (int i = 0; i < sortedStates.size(); i++) {
+      int stateIndex = sortedStates.get(i).getStateIndex();
+      int state = compiledDEA.getState(stateIndex);
+      
+      for (int column = 0; column < deaTable.getAlphabetSize(); column++) {
+        info += "\u03B4(" + subscript("q" + stateIndex) + ", " + deaTable.getSymbol(column) + ") = " +
+            subscript("q" + compiledDEA.getStateIndex(deaTable.next(state, column))) + "    ";
+      }
+      
+      if (deaTable.getAlphabetSize() >= 1)
+        info += "\n";
+    }
+    
+    return info;
+  }
+  
   
   private static String getTransferFunctionDefinition(Automat automat) {
     // Epsilon-Automaton
@@ -526,29 +543,31 @@ public class Util {
   
   /** Returns an ArrayList of all States that are reachable by moving along 
    * transitions (only in their direction!). Includes the passed starting state as well.
-   * Uses recursion. The startingState can be any state of the automat, not just the real
-   * StartState of the automat. */
+   * Searches on a snapshot of the automat and doesn't modify any state, so it can run
+   * concurrently to other analyses. The startingState can be any state of the automat,
+   * not just the real StartState of the automat. */
   public static ArrayList<State> getReachableStates(Automat automat, State startingState) {
     ArrayList<State> states = new ArrayList<State>();
-    State.unmarkStates(automat.getStates());
     
     // If the startingState is null, no state can be reached and all states of the automat will be removed
     // This can occur if the user removes unreachable states of an automat without a starting state.
-    if (startingState != null)
-      markReachableNeighborStates(automat, startingState);
+    if (startingState == null)
+      return states;
     
-    // Add all marked (reachable) states to the list
+    CompiledAutomat compiledAutomat = CompiledAutomat.compile(automat);
+    BitSet reachedStates = compiledAutomat.reachableStates(compiledAutomat.getState(startingState.getStateIndex()));
+    
+    // Add all reachable states to the list, the dense states are in the order of the states-list
     for (int i = 0; i < automat.getStates().size(); i++) {
-      State state = automat.getStates().get(i);
-      if (state.isMarked())
-        states.add(state);
+      if (reachedStates.get(i))
+        states.add(automat.getStates().get(i));
     }
     
     return states;
   }
   
   /** Returns an ArrayList of all States that are unreachable by moving along 
-   * transitions (only in their direction!). Uses recursion. The startingState can
+   * transitions (only in their direction!). The startingState can
    * be any state of the automat, not just the real StartState of the automat. */
   public static ArrayList<State> getUnreachableStates(Automat automat, State startingState) {
     ArrayList<State> reachableStates = getReachableStates(automat, startingState);
@@ -563,8 +582,14 @@ public class Util {
   public static ArrayList<State> setComplement(ArrayList<State> complementFrom, ArrayList<State> superSet) {
     ArrayList<State> complement = new ArrayList<State>();
     
+    // Hash the stateIndices once instead of scanning complementFrom for every state
+    Set<Integer> complementFromIndices = new HashSet<Integer>();
+    for (int i = 0; i < complementFrom.size(); i++) {
+      complementFromIndices.add(complementFrom.get(i).getStateIndex());
+    }
+    
     for (int i = 0; i < superSet.size(); i++) {
-      if (State.getStateByStateIndex(superSet.get(i).getStateIndex(), complementFrom) == null) {
+      if (!complementFromIndices.contains(superSet.get(i).getStateIndex())) {
         complement.add(superSet.get(i));
       }
     }
@@ -573,7 +598,7 @@ public class Util {
   }
   
   /** Deletes all States that are unreachable by moving along 
-   * transitions (only in their direction!). Uses recursion. The startingState can
+   * transitions (only in their direction!). The startingState can
    * be any state of the automat, not just the real StartState of the automat. 
    * @return true if one or more states were deleted, false if the automat had no unreachable states. */
   public static boolean deleteUnreachableStates(Automat automat, State startingState) {
@@ -583,20 +608,4 @@ public class Util {
     
     return unreachableStates.size() >= 1;
   }
-  
-  /** Recursive method that calls itself for all unmarked neighbor-states of that passed state that
-   * can be reached by one transition. */
-  private static void markReachableNeighborStates(Automat automat, State state) {
-    state.setMarked(true);
-    
-    // Get all reachable Neighbor states
-    ArrayList<Transition> outgoingTransitions = Transition.getTransitionsByStartState(state,
-        automat.getTransitions());
-    
-    for (int i = 0; i < outgoingTransitions.size(); i++) {
-      if (!outgoingTransitions.get(i).getTransitionEnd().isMarked()) {
-        markReachableNeighborStates(automat, outgoingTransitions.get(i).getTransitionEnd());
-      }
-    }
-  }
 }
\ No newline at end of file
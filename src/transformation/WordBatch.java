@@ -0,0 +1,95 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+
+/** Tests a stream of words, one per line, against one compiled automat. The words are read in
+ * chunks, one chunk after the other is read, tested and written: the words of a chunk are tested
+ * in parallel on a ForkJoinPool, then its results are written in the order of the words, the word,
+ * a tab and ACCEPTED or DENIED per line. An empty line is the empty word. Only one chunk is held in
+ * memory, so the number of words is unlimited. */
+public class WordBatch {
+  public static final String ACCEPTED = "accepted";
+  public static final String DENIED = "denied";
+  
+  /** Words read and tested at once. */
+  public static final int CHUNK_WORDS = 8192;
+  /** Chunks with fewer words are tested on the calling thread. */
+  private static final int PARALLEL_THRESHOLD = 256;
+  
+  private final Language language;
+  private final ForkJoinPool pool;
+  private volatile boolean cancelled;
+  
+  /** @param language The engine of the automat, see Language(Automat). */
+  public WordBatch(Language language, ForkJoinPool pool) {
+    this.language = language;
+    this.pool = pool;
+  }
+  
+  /** Like WordBatch(Language, ForkJoinPool), on the common ForkJoinPool. */
+  public WordBatch(Language language) {
+    this(language, ForkJoinPool.commonPool());
+  }
+  
+  /** Tests all words of the reader and writes the results. Stops after the current chunk if the
+   * batch was cancelled. The reader and writer aren't closed. */
+  public WordBatchStatistics run(BufferedReader words, Writer results) throws IOException {
+    WordBatchStatistics statistics = new WordBatchStatistics();
+    final String[] chunk = new String[CHUNK_WORDS];
+    final boolean[] accepted = new boolean[CHUNK_WORDS];
+    final long[] latencies = new long[CHUNK_WORDS];
+    long start = System.nanoTime();
+    
+    int chunkSize = CHUNK_WORDS;
+    while (chunkSize == CHUNK_WORDS && !cancelled) {
+      chunkSize = 0;
+      String word;
+      while (chunkSize < CHUNK_WORDS && (word = words.readLine()) != null) {
+        chunk[chunkSize++] = word;
+      }
+      
+      ParallelRange.run(pool, chunkSize, PARALLEL_THRESHOLD, new RangeTask() {
+        public void run(int from, int to) {
+          for (int i = from; i < to; i++) {
+            long wordStart = System.nanoTime();
+            accepted[i] = language.accepts(chunk[i]);
+            latencies[i] = System.nanoTime() - wordStart;
+          }
+        }
+      });
+      
+      for (int i = 0; i < chunkSize; i++) {
+        results.write(chunk[i]);
+        results.write('\t');
+        results.write(accepted[i] ? ACCEPTED : DENIED);
+        results.write('\n');
+        
+        statistics.addWord(accepted[i], latencies[i]);
+        chunk[i] = null;
+      }
+    }
+    
+    results.flush();
+    statistics.setElapsedNanos(System.nanoTime() - start);
+    statistics.setCancelled(cancelled);
+    
+    return statistics;
+  }
+  
+  /** Stops a running batch after its current chunk, the words tested so far are written. */
+  public void cancel() {
+    cancelled = true;
+  }
+  
+  public boolean isCancelled() {
+    return cancelled;
+  }
+}
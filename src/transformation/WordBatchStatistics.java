@@ -0,0 +1,134 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+/** Counts and timings of a WordBatch. The latencies of the words are kept in a histogram with
+ * 8 buckets per power of two, so a percentile is exact to 1/8 of its value and the memory doesn't
+ * grow with the number of words. */
+public class WordBatchStatistics {
+  /** Latencies below are counted exactly, one bucket per nanosecond. */
+  private static final int LINEAR_BUCKETS = 16;
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - 4) * (1 << SUB_BUCKET_BITS);
+  
+  private long wordCount;
+  private long acceptedCount;
+  private long elapsedNanos;
+  private long maxLatency;
+  private boolean cancelled;
+  private final long[] latencyCounts = new long[BUCKET_COUNT];
+  
+  /** Counts a tested word with its latency. */
+  void addWord(boolean accepted, long latencyNanos) {
+    wordCount++;
+    if (accepted)
+      acceptedCount++;
+    
+    latencyCounts[bucket(latencyNanos)]++;
+    maxLatency = Math.max(maxLatency, latencyNanos);
+  }
+  
+  private static int bucket(long latencyNanos) {
+    if (latencyNanos < LINEAR_BUCKETS)
+      return (int) Math.max(0, latencyNanos);
+    
+    int exponent = 63 - Long.numberOfLeadingZeros(latencyNanos);
+    int subBucket = (int) (latencyNanos >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+    return LINEAR_BUCKETS + (exponent - 4) * (1 << SUB_BUCKET_BITS) + subBucket;
+  }
+  
+  /** The largest latency counted by the bucket. */
+  private static long bucketUpperBound(int bucket) {
+    if (bucket < LINEAR_BUCKETS)
+      return bucket;
+    
+    int exponent = (bucket - LINEAR_BUCKETS) / (1 << SUB_BUCKET_BITS) + 4;
+    int subBucket = (bucket - LINEAR_BUCKETS) % (1 << SUB_BUCKET_BITS);
+    return (((long) (1 << SUB_BUCKET_BITS) + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+  
+  /** Returns the latency in nanoseconds at or below which the passed percentage of the words
+   * were tested, e.g. 99.9. 0 if no word was tested. */
+  public long getLatencyPercentile(double percentile) {
+    if (wordCount == 0)
+      return 0;
+    
+    long rank = (long) Math.ceil(percentile / 100.0 * wordCount);
+    long counted = 0;
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      counted += latencyCounts[bucket];
+      if (counted >= rank)
+        return Math.min(bucketUpperBound(bucket), maxLatency);
+    }
+    
+    return maxLatency;
+  }
+  
+  /** Tested words per second of the whole batch, reading and writing included. */
+  public double getWordsPerSecond() {
+    if (elapsedNanos == 0)
+      return 0;
+    
+    return wordCount * 1e9 / elapsedNanos;
+  }
+  
+  /** Returns the statistics as text to display, one line per topic. */
+  public String getSummary() {
+    String summary = "";
+    if (cancelled)
+      summary += "Cancelled, the results contain the words tested so far\n\n";
+    
+    summary += "Words: " + wordCount + " (accepted: " + acceptedCount + ", denied: " +
+        (wordCount - acceptedCount) + ")\n";
+    summary += String.format("Time: %.3f s, %.0f words/s\n", elapsedNanos / 1e9, getWordsPerSecond());
+    summary += "Latency per word: p50 " + formatNanos(getLatencyPercentile(50)) +
+        ", p90 " + formatNanos(getLatencyPercentile(90)) +
+        ", p99 " + formatNanos(getLatencyPercentile(99)) +
+        ", p99.9 " + formatNanos(getLatencyPercentile(99.9)) +
+        ", max " + formatNanos(maxLatency) + "\n";
+    
+    return summary;
+  }
+  
+  private static String formatNanos(long nanos) {
+    if (nanos < 10000)
+      return nanos + " ns";
+    
+    if (nanos < 10000000)
+      return String.format("%.1f \u00B5s", nanos / 1e3);
+    
+    return String.format("%.1f ms", nanos / 1e6);
+  }
+  
+  // Setters and Getters
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+  
+  void setCancelled(boolean cancelled) {
+    this.cancelled = cancelled;
+  }
+  
+  public long getWordCount() {
+    return this.wordCount;
+  }
+  
+  public long getAcceptedCount() {
+    return this.acceptedCount;
+  }
+  
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+  
+  public long getMaxLatency() {
+    return this.maxLatency;
+  }
+  
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+}
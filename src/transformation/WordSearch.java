@@ -0,0 +1,155 @@
+/* 
+ * Editor for Automata
+ * Bachelor Thesis
+ * Raphael Bucher 2016 / 2017
+ * */
+package transformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import editor.Automat;
+import editor.Symbol;
+
+/** The search of Language.accepts() for one word on a NEA or Epsilon-automat. Simulates all paths
+ * at once: layer i is the set of states reachable by reading the first i symbols of the word,
+ * Epsilon-Transitions included, O(|word| * transitions). Every state of a layer remembers the state
+ * it was reached from first, so one path can be rebuilt backwards. Holds the working state of one
+ * search only, so any number of searches can run concurrently on the same automat. */
+public class WordSearch {
+  private final CompiledAutomat compiledAutomat;
+  private final Automat automat;
+  private final int stateCount;
+  
+  /** parents[layer * stateCount + state] = the state it was reached from, -1 if it wasn't reached
+   * or is the start-state of layer 0. */
+  private int[] parents;
+  /** Set for (layer, state)-indices reached over an Epsilon-Transition within their layer, their
+   * parent is in the same layer. The parents of the others are in the layer before. */
+  private BitSet epsilonParents;
+  
+  // States of the current layer, in the order of their discovery
+  private int[] layerStates;
+  private int layerSize;
+  private BitSet inLayer;
+  
+  public WordSearch(CompiledAutomat compiledAutomat, Automat automat) {
+    this.compiledAutomat = compiledAutomat;
+    this.automat = automat;
+    this.stateCount = compiledAutomat.getStateCount();
+  }
+  
+  /** Searches a path that accepts the word from the start-state and stores it in the passed
+   * ArrayList, or the longest path the word could travel if it isn't accepted. Returns whether
+   * the word was accepted. */
+  public boolean search(String word, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    parents = new int[(word.length() + 1) * stateCount];
+    Arrays.fill(parents, -1);
+    epsilonParents = new BitSet();
+    
+    layerStates = new int[stateCount];
+    inLayer = new BitSet(stateCount);
+    int[] nextLayerStates = new int[stateCount];
+    BitSet inNextLayer = new BitSet(stateCount);
+    
+    // Layer 0: the start-state and its Epsilon-closure
+    layerStates[0] = compiledAutomat.getStartState();
+    layerSize = 1;
+    inLayer.set(layerStates[0]);
+    closeEpsilon(0);
+    
+    int layer = 0;
+    while (layer < word.length()) {
+      long symbolMask = Symbol.toMask(word.charAt(layer));
+      int nextLayerSize = 0;
+      
+      for (int i = 0; i < layerSize; i++) {
+        int state = layerStates[i];
+        
+        for (int edge = compiledAutomat.edgeStart(state); edge < compiledAutomat.edgeEnd(state); edge++) {
+          int target = compiledAutomat.edgeTarget(edge);
+          
+          if ((compiledAutomat.edgeSymbolMask(edge) & symbolMask) != 0 && !inNextLayer.get(target)) {
+            inNextLayer.set(target);
+            parents[(layer + 1) * stateCount + target] = state;
+            nextLayerStates[nextLayerSize++] = target;
+          }
+        }
+      }
+      
+      // No state reads the symbol, the current layer is the end of the longest path
+      if (nextLayerSize == 0)
+        break;
+      
+      // The next layer is the current one now
+      int[] swapStates = layerStates;
+      layerStates = nextLayerStates;
+      nextLayerStates = swapStates;
+      BitSet swapSet = inLayer;
+      inLayer = inNextLayer;
+      inNextLayer = swapSet;
+      inNextLayer.clear();
+      layerSize = nextLayerSize;
+      
+      layer++;
+      closeEpsilon(layer);
+    }
+    
+    // Accepted if the whole word was read and an end-state was reached. Else the path ends in the
+    // first state reached by the longest readable prefix
+    int endState = layerStates[0];
+    boolean wordAccepted = false;
+    if (layer == word.length()) {
+      for (int i = 0; i < layerSize && !wordAccepted; i++) {
+        if (compiledAutomat.isFinal(layerStates[i])) {
+          endState = layerStates[i];
+          wordAccepted = true;
+        }
+      }
+    }
+    
+    rebuildPath(word, layer, endState, usedTransitionsSymbols);
+    
+    return wordAccepted;
+  }
+  
+  /** Adds all states reachable over Epsilon-Transitions from the states of the current layer. */
+  private void closeEpsilon(int layer) {
+    for (int i = 0; i < layerSize; i++) {
+      int state = layerStates[i];
+      
+      for (int edge = compiledAutomat.edgeStart(state); edge < compiledAutomat.edgeEnd(state); edge++) {
+        int target = compiledAutomat.edgeTarget(edge);
+        
+        if ((compiledAutomat.edgeSymbolMask(edge) & Symbol.EPSILON_MASK) != 0 && !inLayer.get(target)) {
+          inLayer.set(target);
+          parents[layer * stateCount + target] = state;
+          epsilonParents.set(layer * stateCount + target);
+          layerStates[layerSize++] = target;
+        }
+      }
+    }
+  }
+  
+  /** Follows the parents from the passed state back to the start-state and adds the traveled
+   * transitions in reading order to the passed ArrayList. */
+  private void rebuildPath(String word, int layer, int state, ArrayList<ReadSymbol> usedTransitionsSymbols) {
+    ArrayList<ReadSymbol> reversedPath = new ArrayList<ReadSymbol>();
+    
+    int parent = parents[layer * stateCount + state];
+    while (parent != -1) {
+      if (epsilonParents.get(layer * stateCount + state)) {
+        reversedPath.add(Language.readSymbol('\u03B5', parent, state, compiledAutomat, automat));
+      } else {
+        reversedPath.add(Language.readSymbol(word.charAt(layer - 1), parent, state, compiledAutomat, automat));
+        layer--;
+      }
+      
+      state = parent;
+      parent = parents[layer * stateCount + state];
+    }
+    
+    Language.addPath(reversedPath, usedTransitionsSymbols);
+  }
+}